@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Three threads recording events into one heatmap while a fourth
+ * thread drains it like the JavaFX application thread does once per
+ * pulse. gc.alloc.rate.norm of record has to stay at 0 B/op.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivityHeatmapBenchmark {
+    private ActivityHeatmap heatmap;
+    private long            now;
+
+
+    @Setup public void setup() {
+        heatmap = new ActivityHeatmap(ActivityHeatmap.DEFAULT_CAPACITY, ZoneId.of("UTC"));
+        now     = System.currentTimeMillis();
+    }
+
+    @Benchmark @Group("stream") @GroupThreads(3) public boolean record() { return heatmap.record(now); }
+
+    @Benchmark @Group("stream") @GroupThreads(1) public boolean drain() { return heatmap.drain(now); }
+}
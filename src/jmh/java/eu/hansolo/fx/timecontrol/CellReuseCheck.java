@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import com.sun.javafx.application.PlatformImpl;
+import eu.hansolo.fx.timecontrol.TimeControl.RenderMode;
+import javafx.application.Platform;
+import javafx.geometry.Point2D;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Checks on a headless Monocle toolkit that a reused TimeControlListCell
+ * in the nodes mode moves its touch points to the range of the item it
+ * shows. After rebinding the cell, setting the range of the control and
+ * changing the bound range, the centers of the start and stop touch
+ * points have to be where a new control for the same range has them,
+ * without another layout of the cell.
+ * Run with gradle cellReuseCheck, exits with 1 if a touch point is off.
+ */
+public final class CellReuseCheck {
+    private static final double SIZE    = 200;
+    private static final double EPSILON = 1e-6;
+
+
+    // ******************** Constructors **************************************
+    private CellReuseCheck() {}
+
+
+    // ******************** Methods *******************************************
+    public static void main(final String[] ARGS) throws Exception {
+        final CountDownLatch LATCH = new CountDownLatch(1);
+        PlatformImpl.startup(LATCH::countDown);
+        LATCH.await();
+        Platform.setImplicitExit(false);
+
+        final CompletableFuture<List<String>> ERRORS = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                ERRORS.complete(check());
+            } catch (Throwable throwable) {
+                ERRORS.completeExceptionally(throwable);
+            }
+        });
+        List<String> errors;
+        try {
+            errors = ERRORS.get(1, TimeUnit.MINUTES);
+        } finally {
+            Platform.exit();
+        }
+        errors.forEach(System.out::println);
+        System.out.println(errors.isEmpty() ? "Touch points follow the bound range" : errors.size() + " touch points are off");
+        System.exit(errors.isEmpty() ? 0 : 1);
+    }
+
+    private static List<String> check() {
+        List<String>                   errors  = new ArrayList<>();
+        TimeControlListCell<TimeRange> cell    = new TimeControlListCell<>(range -> range, RenderMode.NODES, SIZE);
+        TimeControl                    control = cell.getTimeControl();
+        Group                          root    = new Group(cell);
+        new Scene(root);
+
+        cell.updateItem(new TimeRange(8 * 3600, 17 * 3600), false);
+        layout(root);
+
+        TimeRange next = new TimeRange(22 * 3600, 6 * 3600 + 1800);
+        cell.updateItem(next, false);
+        compare("rebind", control, next.getStart(), next.getStop(), errors);
+
+        control.setRange(LocalTime.of(3, 15), LocalTime.of(11, 45));
+        compare("setRange", control, next.getStart(), next.getStop(), errors);
+
+        next.set(13 * 3600, 14 * 3600);
+        compare("bound range", control, next.getStart(), next.getStop(), errors);
+        return errors;
+    }
+
+    // Compares the touch points of the control with the ones of a new control that shows the same range
+    private static void compare(final String STEP, final TimeControl CONTROL, final int START, final int STOP, final List<String> ERRORS) {
+        TimeControl reference = new TimeControl(RenderMode.NODES);
+        reference.setPrefSize(CONTROL.getWidth(), CONTROL.getHeight());
+        reference.getTimeRange().set(START, STOP);
+        Group root = new Group(reference);
+        new Scene(root);
+        layout(root);
+
+        for (boolean start : new boolean[] { true, false }) {
+            Point2D actual   = CONTROL.touchPointCenter(start);
+            Point2D expected = reference.touchPointCenter(start);
+            if (null == actual || actual.distance(expected) > EPSILON) {
+                ERRORS.add(STEP + ": " + (start ? "start" : "stop") + " touch point at " + actual + ", expected " + expected);
+            }
+        }
+    }
+
+    private static void layout(final Group ROOT) {
+        ROOT.applyCss();
+        ROOT.layout();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Hit testing and dragging of a range in a DaySchedule with many ranges.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DayScheduleBenchmark {
+    @Param({ "10", "100", "1000" })
+    private int         ranges;
+    private DaySchedule schedule;
+    private int         secondOfDay;
+    private int         step;
+
+
+    @Setup public void setup() {
+        schedule = new DaySchedule();
+        step     = TimeRange.SECONDS_PER_DAY / ranges;
+        for (int i = 0 ; i < ranges ; i++) { schedule.add(i * step, i * step + step / 2); }
+    }
+
+    @Benchmark public int indexAt() {
+        secondOfDay = (secondOfDay + 997) % TimeRange.SECONDS_PER_DAY;
+        return schedule.indexAt(secondOfDay);
+    }
+
+    @Benchmark public int dragStop() {
+        int index = ranges / 2;
+        int start = schedule.getStart(index);
+        int stop  = schedule.getStop(index) == start + step / 2 ? start + step / 4 : start + step / 2;
+        return schedule.set(index, start, stop);
+    }
+}
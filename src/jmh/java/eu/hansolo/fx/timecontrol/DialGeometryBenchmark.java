@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Table lookups of the tick mark geometry, of the touch point placement
+ * and of the angle to time conversion of a drag event. This only covers
+ * the geometry, gc.alloc.rate.norm of these lookups has to stay at
+ * 0 B/op. The real drawing of the tick marks is measured by
+ * DialRenderBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DialGeometryBenchmark {
+    @Param({ "300" })
+    private double size;
+    private int    secondOfDay;
+    private double theta;
+
+
+    @Benchmark public void tickmarkGeometry(final Blackhole BLACKHOLE) {
+        double center = size * 0.5;
+        for (int i = 0 ; i < DialGeometry.TICK_COUNT ; i++) {
+            BLACKHOLE.consume(DialGeometry.tickX(i, center, size * 0.5));
+            BLACKHOLE.consume(DialGeometry.tickY(i, center, size * 0.5));
+            if (DialGeometry.isMajorTick(i)) {
+                BLACKHOLE.consume(DialGeometry.tickX(i, center, size * 0.465));
+                BLACKHOLE.consume(DialGeometry.tickY(i, center, size * 0.465));
+                BLACKHOLE.consume(DialGeometry.tickX(i, center, size * 0.42));
+                BLACKHOLE.consume(DialGeometry.tickY(i, center, size * 0.42));
+                BLACKHOLE.consume(DialGeometry.tickLabel(i));
+            } else {
+                BLACKHOLE.consume(DialGeometry.tickX(i, center, size * 0.478));
+                BLACKHOLE.consume(DialGeometry.tickY(i, center, size * 0.478));
+            }
+        }
+    }
+
+    @Benchmark public void handlePosition(final Blackhole BLACKHOLE) {
+        secondOfDay = (secondOfDay + 37) % DialGeometry.SECONDS_PER_DAY;
+        BLACKHOLE.consume(DialGeometry.handleSin(secondOfDay));
+        BLACKHOLE.consume(DialGeometry.handleCos(secondOfDay));
+    }
+
+    @Benchmark public int angleToSecondOfDay() {
+        theta = (theta + 7.3) % 360;
+        return DialGeometry.secondOfDay(DialGeometry.theta(size * Math.cos(Math.toRadians(theta)), size * Math.sin(Math.toRadians(theta))));
+    }
+}
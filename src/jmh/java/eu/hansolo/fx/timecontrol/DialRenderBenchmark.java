@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import com.sun.javafx.application.PlatformImpl;
+import com.sun.management.ThreadMXBean;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Rendering of the tick mark dial on a headless Monocle toolkit with
+ * the software pipeline, drawTickmarks measures DialCache.drawTickmarks()
+ * alone and renderDial includes the snapshot into an image. Every
+ * invocation runs on the FX application thread, so the numbers include
+ * one thread hop. drawTickmarks therefore redraws the dial REDRAWS
+ * times per hop and reports the bytes the FX application thread
+ * allocated per redraw as bytesPerRedraw, gc.alloc.rate.norm would
+ * include the task and the hop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw", "-Djava.awt.headless=true" })
+public class DialRenderBenchmark {
+    private static final int          REDRAWS = 100;
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    @Param({ "150", "300", "600" })
+    private              int          size;
+    private              Canvas       canvas;
+
+
+    @Setup public void setup() throws InterruptedException {
+        final CountDownLatch LATCH = new CountDownLatch(1);
+        PlatformImpl.startup(LATCH::countDown);
+        LATCH.await();
+        Platform.setImplicitExit(false);
+        canvas = new Canvas(size, size);
+    }
+
+    @Benchmark @OperationsPerInvocation(REDRAWS) public long drawTickmarks(final Allocations ALLOCATIONS) throws Exception {
+        FutureTask<Long> task = new FutureTask<>(() -> {
+            GraphicsContext ctx      = canvas.getGraphicsContext2D();
+            long            first    = allocatedBytes();
+            long            overhead = allocatedBytes() - first;
+            long            before   = allocatedBytes();
+            for (int i = 0 ; i < REDRAWS ; i++) { DialCache.drawTickmarks(ctx, size, Color.WHITE); }
+            return allocatedBytes() - before - overhead;
+        });
+        Platform.runLater(task);
+        long allocated = task.get();
+        ALLOCATIONS.allocated += allocated;
+        ALLOCATIONS.redraws   += REDRAWS;
+        return allocated;
+    }
+
+    @Benchmark public Image renderDial() throws Exception {
+        FutureTask<Image> task = new FutureTask<>(() -> DialCache.renderDial(size, Color.WHITE));
+        Platform.runLater(task);
+        return task.get();
+    }
+
+    // Bytes allocated by the current thread, the difference of two calls is the overhead of one measurement
+    private static long allocatedBytes() { return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()); }
+
+
+    // ******************** Inner Classes *************************************
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Allocations {
+        private long allocated;
+        private long redraws;
+
+        @Setup(Level.Iteration) public void reset() {
+            allocated = 0;
+            redraws   = 0;
+        }
+
+        public double bytesPerRedraw() { return 0 == redraws ? 0 : (double) allocated / redraws; }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Coverage queries over a population of ranges, perMinuteContains is
+ * the naive per minute and range comparison for reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinuteCoverageBenchmark {
+    @Param({ "1000", "100000" })
+    private int   ranges;
+    private int[] starts;
+    private int[] stops;
+
+
+    @Setup public void setup() {
+        Random random = new Random(42);
+        starts = new int[ranges];
+        stops  = new int[ranges];
+        for (int i = 0 ; i < ranges ; i++) {
+            starts[i] = random.nextInt(TimeRange.SECONDS_PER_DAY);
+            stops[i]  = random.nextInt(TimeRange.SECONDS_PER_DAY);
+        }
+    }
+
+    @Benchmark public int[] counts() { return MinuteCoverage.counts(starts, stops); }
+
+    @Benchmark public MinuteMask union() { return MinuteCoverage.union(starts, stops); }
+
+    @Benchmark public MinuteMask intersection() { return MinuteCoverage.intersection(starts, stops); }
+
+    @Benchmark public DaySchedule gaps() { return MinuteCoverage.gaps(starts, stops); }
+
+    @Benchmark public int[] perMinuteContains() {
+        int[] counts = new int[MinuteMask.MINUTES_PER_DAY];
+        for (int minute = 0 ; minute < counts.length ; minute++) {
+            for (int i = 0 ; i < ranges ; i++) {
+                if (TimeRange.contains(starts[i], stops[i], minute * 60)) { counts[minute]++; }
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Restoring and saving the ranges of a full console. Storing ranges
+ * that did not change must not write any record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangeStoreBenchmark {
+    @Param({ "50000" })
+    private int         count;
+    private Path        file;
+    private RangeStore  store;
+    private TimeRange[] ranges;
+
+
+    @Setup public void setup() throws IOException {
+        int[] ids = new int[count];
+        ranges = new TimeRange[count];
+        for (int i = 0 ; i < count ; i++) {
+            ids[i]    = i;
+            ranges[i] = new TimeRange(i * 37 % TimeRange.SECONDS_PER_DAY, i * 91 % TimeRange.SECONDS_PER_DAY);
+        }
+        file  = Files.createTempFile("timecontrol", ".ranges");
+        store = RangeStore.create(file, ids);
+        store.store(id -> ranges[id]);
+        store.force();
+    }
+
+    @TearDown public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark public int load() { return store.load(id -> ranges[id]); }
+
+    @Benchmark public int storeUnchanged() { return store.store(id -> ranges[id]); }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import com.sun.javafx.application.PlatformImpl;
+import eu.hansolo.fx.timecontrol.TimeControl.RenderMode;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.RowConstraints;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Macro benchmark that shows grids of 10, 100 and 1000 TimeControls on a
+ * headless Monocle toolkit and measures the duration of every pulse
+ * while the window is resized, the stop points are dragged, the bar
+ * color changes and the start time changes on all controls. With
+ * javafx.animation.fullspeed=true pulses run back to back, so the time
+ * between two AnimationTimer calls is the duration of one pulse
+ * including CSS, layout and rendering.
+ * Run with gradle sceneBenchmark, the results (pulse durations, node
+ * count and heap usage per scenario) are written as JSON to
+ * build/reports/scene/results.json.
+ * Usage: SceneBenchmark [output file] [counts, e.g. 10,100,1000]
+ */
+public final class SceneBenchmark {
+    private static final int[]  DEFAULT_COUNTS = { 10, 100, 1000 };
+    private static final int    WARMUP_FRAMES  = 30;
+    private static final int    FRAMES         = 120;
+    private static final double WIDTH          = 1600;
+    private static final double HEIGHT         = 1200;
+    private static final Color  COLOR_A        = Color.rgb(255, 160, 0);
+    private static final Color  COLOR_B        = Color.rgb(0, 160, 255);
+
+    enum Scenario { RESIZE, DRAG, BAR_COLOR, START_TIME }
+
+
+    // ******************** Constructors **************************************
+    private SceneBenchmark() {}
+
+
+    // ******************** Methods *******************************************
+    public static void main(final String[] ARGS) throws Exception {
+        Path  output = Paths.get(ARGS.length > 0 ? ARGS[0] : "build/reports/scene/results.json");
+        int[] counts = ARGS.length > 1 ? Arrays.stream(ARGS[1].split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray() : DEFAULT_COUNTS;
+
+        final CountDownLatch LATCH = new CountDownLatch(1);
+        PlatformImpl.startup(LATCH::countDown);
+        LATCH.await();
+        Platform.setImplicitExit(false);
+
+        List<Result> results = new ArrayList<>();
+        for (RenderMode renderMode : RenderMode.values()) {
+            for (int count : counts) {
+                for (Scenario scenario : Scenario.values()) {
+                    Result result = run(renderMode, count, scenario);
+                    System.out.println(result.toJson());
+                    results.add(result);
+                }
+            }
+        }
+        write(output, results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+        Platform.exit();
+    }
+
+    private static Result run(final RenderMode RENDER_MODE, final int COUNT, final Scenario SCENARIO) throws Exception {
+        final CompletableFuture<Result> RESULT = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            TimeControl[] controls = new TimeControl[COUNT];
+            GridPane      grid     = createGrid(controls, RENDER_MODE);
+            Stage         stage    = new Stage();
+            stage.setScene(new Scene(grid, WIDTH, HEIGHT));
+            stage.show();
+            new AnimationTimer() {
+                private final long[]       pulses = new long[FRAMES];
+                private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+                private       long         maxHeap;
+                private       long         last;
+                private       int          frame;
+
+                @Override public void handle(final long NOW) {
+                    long time = System.nanoTime();
+                    if (frame > WARMUP_FRAMES) {
+                        pulses[frame - WARMUP_FRAMES - 1] = time - last;
+                        maxHeap = Math.max(maxHeap, memory.getHeapMemoryUsage().getUsed());
+                    }
+                    last = time;
+                    if (frame == WARMUP_FRAMES + FRAMES) {
+                        stop();
+                        if (Scenario.DRAG == SCENARIO) { for (TimeControl control : controls) { control.releaseDrag(); } }
+                        int nodes = countNodes(stage.getScene().getRoot());
+                        System.gc();
+                        long heap = memory.getHeapMemoryUsage().getUsed();
+                        stage.hide();
+                        RESULT.complete(new Result(RENDER_MODE, COUNT, SCENARIO, pulses, nodes, heap, maxHeap));
+                        return;
+                    }
+                    apply(SCENARIO, stage, controls, frame++);
+                }
+            }.start();
+        });
+        return RESULT.get(10, TimeUnit.MINUTES);
+    }
+
+    private static GridPane createGrid(final TimeControl[] CONTROLS, final RenderMode RENDER_MODE) {
+        int      columns = (int) Math.ceil(Math.sqrt(CONTROLS.length));
+        int      rows    = (CONTROLS.length + columns - 1) / columns;
+        GridPane grid    = new GridPane();
+        for (int column = 0 ; column < columns ; column++) {
+            ColumnConstraints constraints = new ColumnConstraints();
+            constraints.setPercentWidth(100.0 / columns);
+            constraints.setHgrow(Priority.ALWAYS);
+            grid.getColumnConstraints().add(constraints);
+        }
+        for (int row = 0 ; row < rows ; row++) {
+            RowConstraints constraints = new RowConstraints();
+            constraints.setPercentHeight(100.0 / rows);
+            constraints.setVgrow(Priority.ALWAYS);
+            grid.getRowConstraints().add(constraints);
+        }
+        for (int i = 0 ; i < CONTROLS.length ; i++) {
+            CONTROLS[i] = new TimeControl(RENDER_MODE);
+            CONTROLS[i].setMinSize(0, 0);
+            grid.add(CONTROLS[i], i % columns, i / columns);
+        }
+        return grid;
+    }
+
+    private static void apply(final Scenario SCENARIO, final Stage STAGE, final TimeControl[] CONTROLS, final int FRAME) {
+        switch (SCENARIO) {
+            case RESIZE:
+                double scale = 0.5 + 0.5 * (FRAME % 20) / 19.0;
+                STAGE.setWidth(WIDTH * scale);
+                STAGE.setHeight(HEIGHT * scale);
+                break;
+            case DRAG:
+                for (int i = 0 ; i < CONTROLS.length ; i++) { CONTROLS[i].dragStop((FRAME * 600 + i * 60) % TimeRange.SECONDS_PER_DAY); }
+                break;
+            case BAR_COLOR:
+                Color color = FRAME % 2 == 0 ? COLOR_A : COLOR_B;
+                for (TimeControl control : CONTROLS) { control.setBarColor(color); }
+                break;
+            case START_TIME:
+                for (int i = 0 ; i < CONTROLS.length ; i++) { CONTROLS[i].setStartTime(LocalTime.ofSecondOfDay((FRAME * 900 + i * 60) % TimeRange.SECONDS_PER_DAY)); }
+                break;
+        }
+    }
+
+    private static int countNodes(final Node NODE) {
+        int count = 1;
+        if (NODE instanceof Parent) {
+            for (Node child : ((Parent) NODE).getChildrenUnmodifiable()) { count += countNodes(child); }
+        }
+        return count;
+    }
+
+    private static void write(final Path OUTPUT, final List<Result> RESULTS) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0 ; i < RESULTS.size() ; i++) {
+            json.append("  ").append(RESULTS.get(i).toJson());
+            json.append(i < RESULTS.size() - 1 ? ",\n" : "\n");
+        }
+        json.append("]\n");
+        if (null != OUTPUT.getParent()) { Files.createDirectories(OUTPUT.getParent()); }
+        Files.write(OUTPUT, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class Result {
+        private final RenderMode renderMode;
+        private final int        count;
+        private final Scenario   scenario;
+        private final long[]     pulses;
+        private final int        nodes;
+        private final long       heapAfterGc;
+        private final long       maxHeap;
+
+        Result(final RenderMode RENDER_MODE, final int COUNT, final Scenario SCENARIO, final long[] PULSES, final int NODES, final long HEAP_AFTER_GC, final long MAX_HEAP) {
+            renderMode  = RENDER_MODE;
+            count       = COUNT;
+            scenario    = SCENARIO;
+            pulses      = PULSES.clone();
+            nodes       = NODES;
+            heapAfterGc = HEAP_AFTER_GC;
+            maxHeap     = MAX_HEAP;
+            Arrays.sort(pulses);
+        }
+
+        private double mean() {
+            double sum = 0;
+            for (long pulse : pulses) { sum += pulse; }
+            return sum / pulses.length;
+        }
+
+        private double percentile(final double PERCENTILE) { return pulses[(int) Math.min(pulses.length - 1, Math.ceil(PERCENTILE * pulses.length) - 1)]; }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"renderMode\":\"%s\",\"controls\":%d,\"scenario\":\"%s\",\"frames\":%d,\"pulseMs\":{\"mean\":%.3f,\"p50\":%.3f,\"p95\":%.3f,\"p99\":%.3f,\"max\":%.3f},\"nodes\":%d,\"heapAfterGcBytes\":%d,\"heapMaxBytes\":%d}",
+                                 renderMode, count, scenario, pulses.length, mean() / 1e6, percentile(0.5) / 1e6, percentile(0.95) / 1e6, percentile(0.99) / 1e6, pulses[pulses.length - 1] / 1e6, nodes, heapAfterGc, maxHeap);
+        }
+    }
+}
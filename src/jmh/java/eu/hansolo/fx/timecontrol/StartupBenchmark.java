@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import com.sun.javafx.application.PlatformImpl;
+import eu.hansolo.fx.timecontrol.TimeControl.RenderMode;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.layout.FlowPane;
+import javafx.stage.Stage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Time to construct 1000 TimeControls and time until the first frame
+ * that shows 1000 TimeControls has been rendered, both on a headless
+ * Monocle toolkit with the software pipeline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw", "-Djava.awt.headless=true" })
+public class StartupBenchmark {
+    private static final int        COUNT = 1000;
+    @Param({ "NODES", "CANVAS" })
+    private              RenderMode renderMode;
+
+
+    @Setup public void setup() throws InterruptedException {
+        final CountDownLatch LATCH = new CountDownLatch(1);
+        PlatformImpl.startup(LATCH::countDown);
+        LATCH.await();
+        Platform.setImplicitExit(false);
+    }
+
+    @Benchmark public TimeControl[] construct() throws Exception {
+        FutureTask<TimeControl[]> task = new FutureTask<>(this::createControls);
+        Platform.runLater(task);
+        return task.get();
+    }
+
+    @Benchmark public Stage firstFrame() throws Exception {
+        final CompletableFuture<Stage> FRAME = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            FlowPane pane = new FlowPane(createControls());
+            Stage    stage = new Stage();
+            stage.setScene(new Scene(pane, 1600, 1200));
+            stage.show();
+            // The second pulse starts after the first frame has been rendered
+            new AnimationTimer() {
+                private int pulses;
+                @Override public void handle(final long NOW) {
+                    if (++pulses < 2) { return; }
+                    stop();
+                    stage.hide();
+                    FRAME.complete(stage);
+                }
+            }.start();
+        });
+        return FRAME.get(1, TimeUnit.MINUTES);
+    }
+
+    private TimeControl[] createControls() {
+        TimeControl[] controls = new TimeControl[COUNT];
+        for (int i = 0 ; i < COUNT ; i++) {
+            controls[i] = new TimeControl(renderMode);
+            controls[i].setPrefSize(40, 50);
+        }
+        return controls;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Off FX thread rendering of single images and of a batch of 1000
+ * ranges. Compare renderBatch with the pool sizes to see how the
+ * batch scales with the number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeControlRendererBenchmark {
+    @Param({ "1", "4" })
+    private int                 parallelism;
+    private TimeControlRenderer renderer;
+    private List<TimeRange>     ranges;
+    private ForkJoinPool        pool;
+    private int                 index;
+
+
+    @Setup public void setup() {
+        Random random = new Random(42);
+        renderer = new TimeControlRenderer();
+        ranges   = new ArrayList<>();
+        pool     = new ForkJoinPool(parallelism);
+        for (int i = 0 ; i < 1000 ; i++) { ranges.add(new TimeRange(random.nextInt(TimeRange.SECONDS_PER_DAY), random.nextInt(TimeRange.SECONDS_PER_DAY))); }
+    }
+
+    @Benchmark public BufferedImage renderSingle() {
+        index = (index + 1) % ranges.size();
+        return renderer.render(ranges.get(index), 200);
+    }
+
+    @Benchmark public long renderBatch() {
+        LongAdder pixels = new LongAdder();
+        renderer.renderAll(ranges, 200, pool, (image, i) -> pixels.add(image.getWidth()));
+        return pixels.sum();
+    }
+}
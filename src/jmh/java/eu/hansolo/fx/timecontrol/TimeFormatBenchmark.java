@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The text updates of updateBar(): the start and stop time and the
+ * hours and minutes of the duration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeFormatBenchmark {
+    private static final DateTimeFormatter TIME_FORMAT   = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter HOUR_FORMAT   = DateTimeFormatter.ofPattern("HH");
+    private static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("mm");
+    private              int               start;
+    private              int               stop;
+
+
+    @Benchmark public void dateTimeFormatter(final Blackhole BLACKHOLE) {
+        start = (start + 61) % TimeRange.SECONDS_PER_DAY;
+        stop  = (stop + 97) % TimeRange.SECONDS_PER_DAY;
+        int       startPointSeconds = TimeRange.normalizedStart(start, stop);
+        LocalTime startTime         = LocalTime.ofSecondOfDay(start);
+        LocalTime stopTime          = LocalTime.ofSecondOfDay(stop);
+        BLACKHOLE.consume(TIME_FORMAT.format(startTime));
+        BLACKHOLE.consume(TIME_FORMAT.format(stopTime));
+        BLACKHOLE.consume(HOUR_FORMAT.format(stopTime.minusSeconds(startPointSeconds)));
+        BLACKHOLE.consume(MINUTE_FORMAT.format(stopTime.minusSeconds(startPointSeconds)));
+    }
+
+    @Benchmark public void labelTable(final Blackhole BLACKHOLE) {
+        start = (start + 61) % TimeRange.SECONDS_PER_DAY;
+        stop  = (stop + 97) % TimeRange.SECONDS_PER_DAY;
+        int deltaSeconds = TimeRange.duration(start, stop);
+        BLACKHOLE.consume(TimeLabels.time(start));
+        BLACKHOLE.consume(TimeLabels.time(stop));
+        BLACKHOLE.consume(TimeLabels.twoDigits(deltaSeconds / 3600));
+        BLACKHOLE.consume(TimeLabels.twoDigits(deltaSeconds % 3600 / 60));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * The range math of updateBar() (wrap over midnight, duration and bar
+ * angles) on the headless TimeRange model. modelUpdate sets start
+ * and stop one after the other, atomicUpdate sets both at once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeRangeBenchmark {
+    private static final int       COUNT = 1024;
+    private              int[]     starts;
+    private              int[]     stops;
+    private              TimeRange range;
+    private              int       index;
+
+
+    @Setup public void setup() {
+        Random random = new Random(42);
+        starts = new int[COUNT];
+        stops  = new int[COUNT];
+        for (int i = 0 ; i < COUNT ; i++) {
+            starts[i] = random.nextInt(TimeRange.SECONDS_PER_DAY);
+            stops[i]  = random.nextInt(TimeRange.SECONDS_PER_DAY);
+        }
+        range = new TimeRange();
+    }
+
+    @Benchmark public void barMath(final Blackhole BLACKHOLE) {
+        index = (index + 1) & (COUNT - 1);
+        int startPointSeconds = TimeRange.normalizedStart(starts[index], stops[index]);
+        int deltaSeconds      = TimeRange.duration(starts[index], stops[index]);
+        BLACKHOLE.consume(-startPointSeconds * DialGeometry.ANGLE_STEP);
+        BLACKHOLE.consume(-deltaSeconds * DialGeometry.ANGLE_STEP);
+    }
+
+    @Benchmark public int modelUpdate() {
+        index = (index + 1) & (COUNT - 1);
+        range.setStart(starts[index]);
+        range.setStop(stops[index]);
+        return range.getDuration();
+    }
+
+    @Benchmark public int atomicUpdate() {
+        index = (index + 1) & (COUNT - 1);
+        range.set(starts[index], stops[index]);
+        return range.getDuration();
+    }
+
+    @Benchmark public boolean contains() {
+        index = (index + 1) & (COUNT - 1);
+        return TimeRange.contains(starts[index], stops[index], stops[(index + 1) & (COUNT - 1)]);
+    }
+}
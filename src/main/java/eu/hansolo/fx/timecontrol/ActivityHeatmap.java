@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Counts timestamped events of the last 24 hours in 96 buckets of 15
+ * minutes, one per tick of the dial. Events can be recorded from any
+ * thread, they are put into a lock free ring buffer with a fixed
+ * capacity and will be moved into the buckets by drain(), which the
+ * TimeControls call at most once per pulse. The memory used does not
+ * depend on the number of events, events that arrive while the ring
+ * buffer is full will be dropped and counted.
+ */
+public class ActivityHeatmap {
+    public  static final int              BUCKETS          = DialGeometry.TICK_COUNT;
+    public  static final int              DEFAULT_CAPACITY = 1 << 16;
+    private static final long             BUCKET_MILLIS    = 24L * 60 * 60 * 1000 / BUCKETS;
+    private final        ZoneId           zone;
+    private final        AtomicLongArray  ring;
+    private final        int              mask;
+    private final        AtomicLong       producerIndex;
+    private volatile     long             consumerIndex;
+    private final        LongAdder        dropped;
+    private final        AtomicBoolean    drainRequested;
+    private final        List<Runnable>   drainRequests;
+    private final        int[]            counts;
+    private final        long[]           bucketSlots;
+    private              int              maxCount;
+    private              long             version;
+
+
+    // ******************** Constructors **************************************
+    public ActivityHeatmap() {
+        this(DEFAULT_CAPACITY, ZoneId.systemDefault());
+    }
+    /**
+     * @param CAPACITY number of events that can be buffered between two drains, will be rounded up to a power of two
+     * @param ZONE     time zone that is used to map the events to the time of the day
+     */
+    public ActivityHeatmap(final int CAPACITY, final ZoneId ZONE) {
+        if (CAPACITY < 2) { throw new IllegalArgumentException("Capacity must be at least 2"); }
+        int capacity = Integer.highestOneBit(CAPACITY - 1) << 1;
+        zone           = null == ZONE ? ZoneId.systemDefault() : ZONE;
+        ring           = new AtomicLongArray(capacity);
+        mask           = capacity - 1;
+        producerIndex  = new AtomicLong();
+        dropped        = new LongAdder();
+        drainRequested = new AtomicBoolean();
+        drainRequests  = new CopyOnWriteArrayList<>();
+        counts         = new int[BUCKETS];
+        bucketSlots    = new long[BUCKETS];
+    }
+
+
+    // ******************** Methods *******************************************
+    public void record() { record(System.currentTimeMillis()); }
+
+    /**
+     * Records an event, can be called from any thread and never blocks.
+     * @param EPOCH_MILLIS time of the event in milliseconds since the epoch, has to be positive
+     * @return false if the event has been dropped because the buffer is full
+     */
+    public boolean record(final long EPOCH_MILLIS) {
+        if (EPOCH_MILLIS <= 0) { throw new IllegalArgumentException("Timestamp must be positive: " + EPOCH_MILLIS); }
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex > mask) {
+                dropped.increment();
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        ring.lazySet((int) (index & mask), EPOCH_MILLIS);
+        if (drainRequested.compareAndSet(false, true)) {
+            for (Runnable request : drainRequests) { request.run(); }
+        }
+        return true;
+    }
+
+    /**
+     * Moves the buffered events into the buckets and clears the buckets
+     * that are older than 24 hours. Must only be called from one thread,
+     * the TimeControl calls it on the JavaFX application thread.
+     * @param NOW_MILLIS current time in milliseconds since the epoch
+     * @return true if a bucket has changed
+     */
+    public boolean drain(final long NOW_MILLIS) {
+        drainRequested.set(false);
+        long offset  = zone.getRules().getOffset(Instant.ofEpochMilli(NOW_MILLIS)).getTotalSeconds() * 1000L;
+        long nowSlot = Math.floorDiv(NOW_MILLIS + offset, BUCKET_MILLIS);
+        boolean changed = false;
+        long    index   = consumerIndex;
+        while (true) {
+            int  position  = (int) (index & mask);
+            long timestamp = ring.get(position);
+            if (0 == timestamp) { break; }
+            ring.lazySet(position, 0);
+            index++;
+            long slot = Math.floorDiv(timestamp + offset, BUCKET_MILLIS);
+            if (slot <= nowSlot - BUCKETS || slot > nowSlot) { continue; }
+            int bucket = (int) Math.floorMod(slot, (long) BUCKETS);
+            if (bucketSlots[bucket] < slot) {
+                bucketSlots[bucket] = slot;
+                counts[bucket]      = 0;
+            } else if (bucketSlots[bucket] > slot) {
+                continue;
+            }
+            counts[bucket]++;
+            changed = true;
+        }
+        consumerIndex = index;
+
+        int max = 0;
+        for (int i = 0 ; i < BUCKETS ; i++) {
+            if (counts[i] > 0 && bucketSlots[i] <= nowSlot - BUCKETS) {
+                counts[i] = 0;
+                changed   = true;
+            }
+            max = Math.max(max, counts[i]);
+        }
+        maxCount = max;
+        if (changed) { version++; }
+        return changed;
+    }
+
+    /**
+     * Returns the number of events in the bucket of the given tick, the
+     * bucket i contains the events from i * 15 minutes to (i + 1) * 15
+     * minutes of the day.
+     */
+    public int getCount(final int BUCKET) { return counts[BUCKET]; }
+
+    /**
+     * Returns the milliseconds until the next bucket starts, the oldest
+     * bucket will be cleared by the first drain after that time.
+     * @param NOW_MILLIS current time in milliseconds since the epoch
+     */
+    long getMillisToNextBucket(final long NOW_MILLIS) {
+        long offset = zone.getRules().getOffset(Instant.ofEpochMilli(NOW_MILLIS)).getTotalSeconds() * 1000L;
+        return BUCKET_MILLIS - Math.floorMod(NOW_MILLIS + offset, BUCKET_MILLIS);
+    }
+
+    public int getMaxCount() { return maxCount; }
+
+    /**
+     * Returns a counter that is incremented whenever a bucket changes.
+     * Controls that share one heatmap compare it with the version they
+     * have drawn, because only the first drain after new events returns
+     * true.
+     */
+    public long getVersion() { return version; }
+
+    /**
+     * Returns the number of events that have been dropped because the
+     * buffer was full.
+     */
+    public long getDropped() { return dropped.sum(); }
+
+    public void clear() {
+        for (int i = 0 ; i < BUCKETS ; i++) {
+            counts[i]      = 0;
+            bucketSlots[i] = 0;
+        }
+        maxCount = 0;
+        version++;
+    }
+
+    /**
+     * The request will be run on the recording thread for the first event
+     * after a drain, i.e. at most once per drain.
+     */
+    void addDrainRequest(final Runnable REQUEST) { drainRequests.add(REQUEST); }
+    void removeDrainRequest(final Runnable REQUEST) { drainRequests.remove(REQUEST); }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Non overlapping ranges of a day, e.g. split shifts and breaks.
+ * The ranges are stored in two int arrays (seconds of the day) that
+ * are sorted by their start. Like in TimeRange a range wraps over
+ * midnight if its start is after its stop, only the last range can
+ * do so. Looking up the range at a given second is O(log n).
+ * Changes between beginUpdate() and endUpdate() will be fired as one
+ * invalidation.
+ */
+public class DaySchedule implements Observable {
+    private static final int                        INITIAL_CAPACITY = 16;
+    private              int[]                      starts;
+    private              int[]                      stops;
+    private              int                        size;
+    private final        List<InvalidationListener> listeners;
+    private              int                        updateDepth;
+    private              boolean                    pending;
+
+
+    // ******************** Constructors **************************************
+    public DaySchedule() {
+        starts    = new int[INITIAL_CAPACITY];
+        stops     = new int[INITIAL_CAPACITY];
+        size      = 0;
+        listeners = new CopyOnWriteArrayList<>();
+    }
+
+
+    // ******************** Methods *******************************************
+    public int size() { return size; }
+
+    public boolean isEmpty() { return 0 == size; }
+
+    public int getStart(final int INDEX) {
+        checkIndex(INDEX);
+        return starts[INDEX];
+    }
+
+    public int getStop(final int INDEX) {
+        checkIndex(INDEX);
+        return stops[INDEX];
+    }
+
+    public int getDuration(final int INDEX) {
+        checkIndex(INDEX);
+        return TimeRange.duration(starts[INDEX], stops[INDEX]);
+    }
+
+    /**
+     * Adds the range from START to STOP (seconds of the day).
+     * @param START start of the range
+     * @param STOP  stop of the range, wraps over midnight if before START
+     * @return the index of the added range
+     * @throws IllegalArgumentException if the range is empty or overlaps an existing range
+     */
+    public int add(final int START, final int STOP) {
+        int index = insert(START, STOP);
+        fireInvalidated();
+        return index;
+    }
+
+    /**
+     * Replaces the range at INDEX. Because the ranges are sorted by their
+     * start the index of the range might change if it moves over midnight.
+     * @return the new index of the range
+     * @throws IllegalArgumentException if the range is empty or overlaps another range
+     */
+    public int set(final int INDEX, final int START, final int STOP) {
+        checkIndex(INDEX);
+        int oldStart = starts[INDEX];
+        int oldStop  = stops[INDEX];
+        if (oldStart == START && oldStop == STOP) { return INDEX; }
+        removeAt(INDEX);
+        int index;
+        try {
+            index = insert(START, STOP);
+        } catch (IllegalArgumentException exception) {
+            insert(oldStart, oldStop);
+            throw exception;
+        }
+        fireInvalidated();
+        return index;
+    }
+
+    public void remove(final int INDEX) {
+        checkIndex(INDEX);
+        removeAt(INDEX);
+        fireInvalidated();
+    }
+
+    public void clear() {
+        if (0 == size) { return; }
+        size = 0;
+        fireInvalidated();
+    }
+
+    /**
+     * Returns the index of the range that contains the given second of
+     * the day or -1 if the second is not covered by any range.
+     */
+    public int indexAt(final int SECOND_OF_DAY) {
+        if (0 == size) { return -1; }
+        int index = floorIndex(SECOND_OF_DAY);
+        if (index >= 0 && TimeRange.contains(starts[index], stops[index], SECOND_OF_DAY)) { return index; }
+        int last = size - 1;
+        if (starts[last] > stops[last] && SECOND_OF_DAY < stops[last]) { return last; }
+        return -1;
+    }
+
+    /**
+     * Starts collecting changes, calls can be nested and every call has
+     * to be followed by a call of endUpdate().
+     */
+    public void beginUpdate() { updateDepth++; }
+
+    /**
+     * Fires one invalidation for all changes since the first call of
+     * beginUpdate() if this is the last pending endUpdate().
+     * @throws IllegalStateException if there is no pending beginUpdate()
+     */
+    public void endUpdate() {
+        if (0 == updateDepth) { throw new IllegalStateException("endUpdate() without beginUpdate()"); }
+        if (--updateDepth > 0 || !pending) { return; }
+        pending = false;
+        fireInvalidated();
+    }
+
+    /**
+     * Runs the given changes between beginUpdate() and endUpdate().
+     */
+    public void update(final Runnable CHANGES) {
+        beginUpdate();
+        try {
+            CHANGES.run();
+        } finally {
+            endUpdate();
+        }
+    }
+
+    @Override public void addListener(final InvalidationListener LISTENER) { listeners.add(LISTENER); }
+    @Override public void removeListener(final InvalidationListener LISTENER) { listeners.remove(LISTENER); }
+
+    private int insert(final int START, final int STOP) {
+        TimeRange.checkSecondOfDay(START);
+        TimeRange.checkSecondOfDay(STOP);
+        if (START == STOP) { throw new IllegalArgumentException("Empty range at " + START); }
+        int index = floorIndex(START) + 1;
+        if (size > 0) {
+            int previous = (index - 1 + size) % size;
+            int next     = index % size;
+            if (TimeRange.contains(starts[previous], stops[previous], START) ||
+                TimeRange.contains(START, STOP, starts[next])) {
+                throw new IllegalArgumentException("Range " + START + " - " + STOP + " overlaps an existing range");
+            }
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            stops  = Arrays.copyOf(stops, size * 2);
+        }
+        System.arraycopy(starts, index, starts, index + 1, size - index);
+        System.arraycopy(stops, index, stops, index + 1, size - index);
+        starts[index] = START;
+        stops[index]  = STOP;
+        size++;
+        return index;
+    }
+
+    private void removeAt(final int INDEX) {
+        System.arraycopy(starts, INDEX + 1, starts, INDEX, size - INDEX - 1);
+        System.arraycopy(stops, INDEX + 1, stops, INDEX, size - INDEX - 1);
+        size--;
+    }
+
+    // Returns the index of the last range that starts at or before the given second, -1 if there is none
+    private int floorIndex(final int SECOND_OF_DAY) {
+        int low  = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= SECOND_OF_DAY) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private void checkIndex(final int INDEX) {
+        if (INDEX < 0 || INDEX >= size) { throw new IndexOutOfBoundsException("Index: " + INDEX + ", Size: " + size); }
+    }
+
+    private void fireInvalidated() {
+        if (updateDepth > 0) {
+            pending = true;
+            return;
+        }
+        for (InvalidationListener listener : listeners) { listener.invalidated(this); }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import eu.hansolo.fx.timecontrol.fonts.Fonts;
+import javafx.geometry.VPos;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Process wide cache of rasterized tick mark dials.
+ * Dials are keyed by their size in pixels and the text color and
+ * will be shared by all TimeControls that use the same key. The
+ * least recently used dial will be evicted if the cache is full.
+ * The cache must only be accessed from the JavaFX application thread.
+ */
+public final class DialCache {
+    private static final int              DEFAULT_CAPACITY = 16;
+    private static final Map<Long, Image> CACHE            = new LinkedHashMap<Long, Image>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(final Map.Entry<Long, Image> ELDEST) {
+            if (size() > capacity) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+    private static       int              capacity         = DEFAULT_CAPACITY;
+    private static       long             hits;
+    private static       long             misses;
+    private static       long             evictions;
+    private static       Canvas           canvas;
+    private static       Color            tickMarkColor;
+    private static       Color            minorTickMarkColor;
+    private static       Color            majorTickMarkColor;
+
+
+    // ******************** Constructors **************************************
+    private DialCache() {}
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the rasterized dial for the given size in pixels and text color.
+     * The dial will be rendered and stored in the cache if it is not present.
+     * @param SIZE  width and height of the dial in pixels
+     * @param COLOR color that will be used for the tick marks and labels
+     * @return the shared image of the dial
+     */
+    public static synchronized Image getDial(final int SIZE, final Color COLOR) {
+        final Long KEY   = createKey(SIZE, COLOR);
+        Image      image = CACHE.get(KEY);
+        if (null == image) {
+            misses++;
+            image = renderDial(SIZE, COLOR);
+            CACHE.put(KEY, image);
+        } else {
+            hits++;
+        }
+        return image;
+    }
+
+    public static synchronized int getCapacity() { return capacity; }
+    public static synchronized void setCapacity(final int CAPACITY) {
+        if (CAPACITY < 1) { throw new IllegalArgumentException("Capacity must be at least 1"); }
+        capacity = CAPACITY;
+        while (CACHE.size() > capacity) {
+            CACHE.remove(CACHE.keySet().iterator().next());
+            evictions++;
+        }
+    }
+
+    public static synchronized int getSize() { return CACHE.size(); }
+
+    public static synchronized long getHits() { return hits; }
+
+    public static synchronized long getMisses() { return misses; }
+
+    public static synchronized long getEvictions() { return evictions; }
+
+    // Removes all dials but keeps the statistics
+    static synchronized void evictAll() { CACHE.clear(); }
+
+    public static synchronized void clear() {
+        CACHE.clear();
+        hits      = 0;
+        misses    = 0;
+        evictions = 0;
+    }
+
+    private static Long createKey(final int SIZE, final Color COLOR) {
+        long argb = Math.round(COLOR.getOpacity() * 255) << 24 |
+                    Math.round(COLOR.getRed() * 255) << 16 |
+                    Math.round(COLOR.getGreen() * 255) << 8 |
+                    Math.round(COLOR.getBlue() * 255);
+        return ((long) SIZE << 32) | argb;
+    }
+
+    static Image renderDial(final int SIZE, final Color COLOR) {
+        if (null == canvas) { canvas = new Canvas(); }
+        canvas.setWidth(SIZE);
+        canvas.setHeight(SIZE);
+        boolean measure = TimeControlMetrics.isEnabled();
+        long    start   = measure ? System.nanoTime() : 0;
+        drawTickmarks(canvas.getGraphicsContext2D(), SIZE, COLOR);
+        if (measure) { TimeControlMetrics.global().record(TimeControlMetrics.Operation.DRAW_TICKMARKS, start); }
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(parameters, new WritableImage(SIZE, SIZE));
+    }
+
+    static void drawTickmarks(final GraphicsContext CTX, final double SIZE, final Color COLOR) {
+        double center             = SIZE * 0.5;
+        double innerRadius        = SIZE * 0.465;
+        double innerMinuteRadius  = SIZE * 0.478;
+        double outerRadius        = SIZE * 0.5;
+        double textRadius         = SIZE * 0.42;
+        if (!COLOR.equals(tickMarkColor)) {
+            tickMarkColor      = COLOR;
+            minorTickMarkColor = Color.color(COLOR.getRed(), COLOR.getGreen(), COLOR.getBlue(), 0.25);
+            majorTickMarkColor = Color.color(COLOR.getRed(), COLOR.getGreen(), COLOR.getBlue(), 0.5);
+        }
+        Font   font               = Fonts.robotoLight(SIZE / 0.75 * 0.04);
+        CTX.clearRect(0, 0, SIZE, SIZE);
+        CTX.setLineCap(StrokeLineCap.BUTT);
+        CTX.setFont(font);
+        CTX.setLineWidth(SIZE * 0.005);
+        CTX.setTextAlign(TextAlignment.CENTER);
+        CTX.setTextBaseline(VPos.CENTER);
+        CTX.setFill(majorTickMarkColor);
+        for (int i = 0 ; i < DialGeometry.TICK_COUNT ; i++) {
+            double outerX = DialGeometry.tickX(i, center, outerRadius);
+            double outerY = DialGeometry.tickY(i, center, outerRadius);
+            if (DialGeometry.isMajorTick(i)) {
+                CTX.setStroke(majorTickMarkColor);
+                CTX.strokeLine(DialGeometry.tickX(i, center, innerRadius), DialGeometry.tickY(i, center, innerRadius), outerX, outerY);
+                // The labels are horizontal, so they are drawn without transforming the context
+                CTX.fillText(DialGeometry.tickLabel(i), DialGeometry.tickX(i, center, textRadius), DialGeometry.tickY(i, center, textRadius));
+            } else {
+                CTX.setStroke(minorTickMarkColor);
+                CTX.strokeLine(DialGeometry.tickX(i, center, innerMinuteRadius), DialGeometry.tickY(i, center, innerMinuteRadius), outerX, outerY);
+            }
+        }
+    }
+}
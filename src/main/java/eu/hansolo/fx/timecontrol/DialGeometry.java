@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+
+/**
+ * Precomputed sin/cos tables for the tick marks of the dial and the
+ * positions of the touch points on the ring. None of the methods
+ * allocate objects.
+ */
+final class DialGeometry {
+    static final         int      TICK_COUNT       = 96;
+    static final         int      SECONDS_PER_DAY  = 86400;
+    static final         double   ANGLE_STEP       = 0.00416667; // degrees per seconds a day
+    private static final String[] TICK_LABELS      = new String[24];
+    private static final double   TICK_START_ANGLE = 180;
+    private static final double   TICK_ANGLE_STEP  = 3.75;
+    private static final double[] TICK_SIN         = new double[TICK_COUNT];
+    private static final double[] TICK_COS         = new double[TICK_COUNT];
+    private static final double[] MINUTE_SIN       = new double[1440];
+    private static final double[] MINUTE_COS       = new double[1440];
+    private static final double[] SECOND_SIN       = new double[60];
+    private static final double[] SECOND_COS       = new double[60];
+
+    static {
+        for (int i = 0 ; i < TICK_COUNT ; i++) {
+            double angle = Math.toRadians(TICK_START_ANGLE - i * TICK_ANGLE_STEP);
+            TICK_SIN[i] = Math.sin(angle);
+            TICK_COS[i] = Math.cos(angle);
+        }
+        for (int i = 0 ; i < TICK_LABELS.length ; i++) { TICK_LABELS[i] = Integer.toString(i); }
+        // The handle angle of a second of the day is -360 / 86400 * second.
+        // Splitting it in minute and second allows exact values from two small tables.
+        for (int i = 0 ; i < MINUTE_SIN.length ; i++) {
+            double angle = Math.toRadians(-i * 0.25);
+            MINUTE_SIN[i] = Math.sin(angle);
+            MINUTE_COS[i] = Math.cos(angle);
+        }
+        for (int i = 0 ; i < SECOND_SIN.length ; i++) {
+            double angle = Math.toRadians(-i * 0.25 / 60.0);
+            SECOND_SIN[i] = Math.sin(angle);
+            SECOND_COS[i] = Math.cos(angle);
+        }
+    }
+
+
+    // ******************** Constructors **************************************
+    private DialGeometry() {}
+
+
+    // ******************** Methods *******************************************
+    static boolean isMajorTick(final int INDEX) { return INDEX % 4 == 0; }
+
+    static String tickLabel(final int INDEX) { return TICK_LABELS[INDEX / 4]; }
+
+    static double tickX(final int INDEX, final double CENTER_X, final double RADIUS) { return CENTER_X + RADIUS * TICK_SIN[INDEX]; }
+
+    static double tickY(final int INDEX, final double CENTER_Y, final double RADIUS) { return CENTER_Y + RADIUS * TICK_COS[INDEX]; }
+
+    /**
+     * Returns the angle in degrees (0 - 360) of the given vector from
+     * the center of the ring.
+     */
+    static double theta(final double DELTA_X, final double DELTA_Y) {
+        double radius = Math.sqrt((DELTA_X * DELTA_X) + (DELTA_Y * DELTA_Y));
+        double nx     = DELTA_X / radius;
+        double ny     = DELTA_Y / radius;
+        double theta  = Math.atan2(ny, nx);
+        return Double.compare(theta, 0.0) >= 0 ? Math.toDegrees(theta) : Math.toDegrees((theta)) + 360.0;
+    }
+
+    /**
+     * Converts the angle that was returned by theta() into the second of the day.
+     */
+    static int secondOfDay(final double THETA) {
+        double angle = -THETA % 360;
+        return ((int) Math.abs(angle / ANGLE_STEP) + 21600) % SECONDS_PER_DAY;
+    }
+
+    /**
+     * Returns sin(toRadians(-secondOfDay * 360 / 86400)) by using
+     * sin(a + b) = sin(a) * cos(b) + cos(a) * sin(b)
+     * @param SECOND_OF_DAY second of the day, will be wrapped into 0 - 86399
+     * @return the sine of the handle angle for the given second of the day
+     */
+    static double handleSin(final int SECOND_OF_DAY) {
+        int second = Math.floorMod(SECOND_OF_DAY, SECONDS_PER_DAY);
+        int minute = second / 60;
+        int rest   = second % 60;
+        return MINUTE_SIN[minute] * SECOND_COS[rest] + MINUTE_COS[minute] * SECOND_SIN[rest];
+    }
+
+    /**
+     * Returns cos(toRadians(-secondOfDay * 360 / 86400)) by using
+     * cos(a + b) = cos(a) * cos(b) - sin(a) * sin(b)
+     * @param SECOND_OF_DAY second of the day, will be wrapped into 0 - 86399
+     * @return the cosine of the handle angle for the given second of the day
+     */
+    static double handleCos(final int SECOND_OF_DAY) {
+        int second = Math.floorMod(SECOND_OF_DAY, SECONDS_PER_DAY);
+        int minute = second / 60;
+        int rest   = second % 60;
+        return MINUTE_COS[minute] * SECOND_COS[rest] - MINUTE_SIN[minute] * SECOND_SIN[rest];
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+
+/**
+ * Coverage queries over large numbers of ranges, given as arrays of
+ * start and stop seconds of the day. The ranges will be split into
+ * chunks that are processed in parallel in the common ForkJoinPool
+ * and the partial results are merged word by word. Counting uses a
+ * difference array per chunk, so every range costs two increments no
+ * matter how long it is.
+ */
+public final class MinuteCoverage {
+    private static final int MINUTES_PER_DAY  = MinuteMask.MINUTES_PER_DAY;
+    private static final int PARALLEL_MINIMUM = 4096;
+
+
+    // ******************** Constructors **************************************
+    private MinuteCoverage() {}
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the minutes that are covered by at least one range.
+     */
+    public static MinuteMask union(final int[] STARTS, final int[] STOPS) {
+        checkLength(STARTS, STOPS);
+        return indices(STARTS.length).collect(MinuteMask::new, (mask, i) -> mask.add(STARTS[i], STOPS[i]), MinuteMask::or);
+    }
+
+    /**
+     * Returns the minutes that are covered by all ranges, the intersection
+     * of no ranges is the whole day.
+     */
+    public static MinuteMask intersection(final int[] STARTS, final int[] STOPS) {
+        checkLength(STARTS, STOPS);
+        return indices(STARTS.length).collect(MinuteMask::full, (mask, i) -> mask.retain(STARTS[i], STOPS[i]), MinuteMask::and);
+    }
+
+    /**
+     * Returns the number of ranges that cover each minute of the day.
+     * @return an array of 1440 counts, indexed by the minute of the day
+     */
+    public static int[] counts(final int[] STARTS, final int[] STOPS) {
+        checkLength(STARTS, STOPS);
+        int[] deltas = indices(STARTS.length).collect(() -> new int[MINUTES_PER_DAY + 1], (delta, i) -> addDelta(delta, STARTS[i], STOPS[i]), MinuteCoverage::merge);
+        int[] counts = new int[MINUTES_PER_DAY];
+        int   count  = 0;
+        for (int minute = 0 ; minute < MINUTES_PER_DAY ; minute++) {
+            count += deltas[minute];
+            counts[minute] = count;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the minutes that are covered by at least MINIMUM ranges.
+     */
+    public static MinuteMask atLeast(final int[] COUNTS, final int MINIMUM) {
+        if (COUNTS.length != MINUTES_PER_DAY) { throw new IllegalArgumentException("Expected " + MINUTES_PER_DAY + " counts but got " + COUNTS.length); }
+        MinuteMask mask = new MinuteMask();
+        int        from = -1;
+        for (int minute = 0 ; minute <= MINUTES_PER_DAY ; minute++) {
+            boolean covered = minute < MINUTES_PER_DAY && COUNTS[minute] >= MINIMUM;
+            if (covered && from < 0) {
+                from = minute;
+            } else if (!covered && from >= 0) {
+                mask.setRange(from, minute);
+                from = -1;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the ranges of the day that are not covered by any range.
+     */
+    public static DaySchedule gaps(final int[] STARTS, final int[] STOPS) { return union(STARTS, STOPS).gaps(); }
+
+    public static MinuteMask union(final List<? extends TimeRange> RANGES) {
+        int[][] values = toArrays(RANGES);
+        return union(values[0], values[1]);
+    }
+
+    public static int[] counts(final List<? extends TimeRange> RANGES) {
+        int[][] values = toArrays(RANGES);
+        return counts(values[0], values[1]);
+    }
+
+    private static IntStream indices(final int COUNT) {
+        IntStream indices = IntStream.range(0, COUNT);
+        return COUNT < PARALLEL_MINIMUM ? indices : indices.parallel();
+    }
+
+    // Same minutes as MinuteMask.add()
+    private static void addDelta(final int[] DELTAS, final int START, final int STOP) {
+        TimeRange.checkSecondOfDay(START);
+        TimeRange.checkSecondOfDay(STOP);
+        int from = MinuteMask.firstMinute(START);
+        int to   = MinuteMask.firstMinute(STOP);
+        if (START <= STOP) {
+            if (from < to) {
+                DELTAS[from]++;
+                DELTAS[to]--;
+            }
+        } else {
+            DELTAS[from]++;
+            DELTAS[MINUTES_PER_DAY]--;
+            DELTAS[0]++;
+            DELTAS[to]--;
+        }
+    }
+
+    private static void merge(final int[] TARGET, final int[] SOURCE) {
+        for (int i = 0 ; i < TARGET.length ; i++) { TARGET[i] += SOURCE[i]; }
+    }
+
+    private static int[][] toArrays(final List<? extends TimeRange> RANGES) {
+        int[] starts = new int[RANGES.size()];
+        int[] stops  = new int[RANGES.size()];
+        for (int i = 0 ; i < starts.length ; i++) {
+            TimeRange range = RANGES.get(i);
+            starts[i] = range.getStart();
+            stops[i]  = range.getStop();
+        }
+        return new int[][] { starts, stops };
+    }
+
+    private static void checkLength(final int[] STARTS, final int[] STOPS) {
+        if (STARTS.length != STOPS.length) { throw new IllegalArgumentException("Got " + STARTS.length + " starts but " + STOPS.length + " stops"); }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import java.util.Arrays;
+
+
+/**
+ * The minutes of a day as a 1440 bit mask in 23 longs. A range covers
+ * the minute m if it contains the second m * 60, with the same wrap
+ * over midnight as TimeRange. Union, intersection and counting work on
+ * whole words, 64 minutes at a time. A mask is mutable and not thread
+ * safe, the methods that combine masks modify this mask.
+ */
+public final class MinuteMask {
+    public  static final int    MINUTES_PER_DAY = 1440;
+    static final         int    WORDS           = (MINUTES_PER_DAY + 63) / 64;
+    private static final long   LAST_WORD_MASK  = -1L >>> (WORDS * 64 - MINUTES_PER_DAY);
+    private final        long[] words;
+
+
+    // ******************** Constructors **************************************
+    public MinuteMask() {
+        words = new long[WORDS];
+    }
+    private MinuteMask(final long[] WORDS) {
+        words = WORDS;
+    }
+
+
+    // ******************** Methods *******************************************
+    public static MinuteMask of(final int START, final int STOP) { return new MinuteMask().add(START, STOP); }
+
+    public static MinuteMask full() {
+        long[] words = new long[WORDS];
+        Arrays.fill(words, -1L);
+        words[WORDS - 1] = LAST_WORD_MASK;
+        return new MinuteMask(words);
+    }
+
+    /**
+     * Adds the minutes that are covered by the range from START to STOP
+     * (seconds of the day).
+     * @return this mask
+     */
+    public MinuteMask add(final int START, final int STOP) {
+        TimeRange.checkSecondOfDay(START);
+        TimeRange.checkSecondOfDay(STOP);
+        int from = firstMinute(START);
+        int to   = firstMinute(STOP);
+        if (START <= STOP) {
+            setRange(from, to);
+        } else {
+            setRange(from, MINUTES_PER_DAY);
+            setRange(0, to);
+        }
+        return this;
+    }
+
+    /**
+     * Removes all minutes that are not covered by the range from START
+     * to STOP (seconds of the day).
+     * @return this mask
+     */
+    public MinuteMask retain(final int START, final int STOP) {
+        TimeRange.checkSecondOfDay(START);
+        TimeRange.checkSecondOfDay(STOP);
+        int from = firstMinute(START);
+        int to   = firstMinute(STOP);
+        if (START <= STOP) {
+            clearRange(0, from);
+            clearRange(to, MINUTES_PER_DAY);
+        } else {
+            clearRange(to, from);
+        }
+        return this;
+    }
+
+    public MinuteMask or(final MinuteMask MASK) {
+        for (int i = 0 ; i < WORDS ; i++) { words[i] |= MASK.words[i]; }
+        return this;
+    }
+
+    public MinuteMask and(final MinuteMask MASK) {
+        for (int i = 0 ; i < WORDS ; i++) { words[i] &= MASK.words[i]; }
+        return this;
+    }
+
+    public MinuteMask andNot(final MinuteMask MASK) {
+        for (int i = 0 ; i < WORDS ; i++) { words[i] &= ~MASK.words[i]; }
+        return this;
+    }
+
+    public MinuteMask not() {
+        for (int i = 0 ; i < WORDS ; i++) { words[i] = ~words[i]; }
+        words[WORDS - 1] &= LAST_WORD_MASK;
+        return this;
+    }
+
+    public boolean get(final int MINUTE) {
+        checkMinute(MINUTE);
+        return (words[MINUTE >>> 6] & (1L << MINUTE)) != 0;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (long word : words) { cardinality += Long.bitCount(word); }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) { if (0 != word) { return false; } }
+        return true;
+    }
+
+    /**
+     * Returns the first covered minute at or after MINUTE or -1.
+     */
+    public int nextSetMinute(final int MINUTE) {
+        if (MINUTE >= MINUTES_PER_DAY) { return -1; }
+        int  index = MINUTE >>> 6;
+        long word  = words[index] & (-1L << MINUTE);
+        while (true) {
+            if (0 != word) { return index * 64 + Long.numberOfTrailingZeros(word); }
+            if (++index == WORDS) { return -1; }
+            word = words[index];
+        }
+    }
+
+    /**
+     * Returns the first uncovered minute at or after MINUTE or -1.
+     */
+    public int nextClearMinute(final int MINUTE) {
+        if (MINUTE >= MINUTES_PER_DAY) { return -1; }
+        int  index = MINUTE >>> 6;
+        long word  = ~words[index] & (-1L << MINUTE);
+        while (true) {
+            if (0 != word) {
+                int minute = index * 64 + Long.numberOfTrailingZeros(word);
+                return minute < MINUTES_PER_DAY ? minute : -1;
+            }
+            if (++index == WORDS) { return -1; }
+            word = ~words[index];
+        }
+    }
+
+    /**
+     * Returns the covered minutes as ranges in seconds of the day. A run
+     * of minutes over midnight will be returned as one wrapping range.
+     */
+    public DaySchedule toSchedule() {
+        DaySchedule schedule = new DaySchedule();
+        if (isEmpty()) { return schedule; }
+        if (cardinality() == MINUTES_PER_DAY) {
+            // A range can not cover the whole day, split it at noon
+            schedule.add(0, TimeRange.SECONDS_PER_DAY / 2);
+            schedule.add(TimeRange.SECONDS_PER_DAY / 2, 0);
+            return schedule;
+        }
+        // Start at a gap, so that a run over midnight stays in one piece. Minutes
+        // behind the origin are counted from origin to origin + 1440.
+        int origin = nextClearMinute(0);
+        int minute = origin;
+        while (true) {
+            int from = nextMinuteCyclic(minute, origin, true);
+            if (from < 0) { break; }
+            int to = nextMinuteCyclic(from, origin, false);
+            schedule.add(from % MINUTES_PER_DAY * 60, to % MINUTES_PER_DAY * 60);
+            minute = to;
+        }
+        return schedule;
+    }
+
+    /**
+     * Returns the uncovered minutes as ranges in seconds of the day.
+     */
+    public DaySchedule gaps() { return copy().not().toSchedule(); }
+
+    public MinuteMask copy() { return new MinuteMask(words.clone()); }
+
+    public long[] toLongArray() { return words.clone(); }
+
+    @Override public boolean equals(final Object OBJECT) {
+        if (this == OBJECT) { return true; }
+        if (!(OBJECT instanceof MinuteMask)) { return false; }
+        return Arrays.equals(words, ((MinuteMask) OBJECT).words);
+    }
+
+    @Override public int hashCode() { return Arrays.hashCode(words); }
+
+    @Override public String toString() { return "MinuteMask[cardinality=" + cardinality() + "]"; }
+
+    // Minute that contains the first second >= SECOND_OF_DAY at a full minute, can be 1440
+    static int firstMinute(final int SECOND_OF_DAY) { return (SECOND_OF_DAY + 59) / 60; }
+
+    // Returns the next set or clear minute at or after MINUTE within [ORIGIN, ORIGIN + 1440), or -1
+    private int nextMinuteCyclic(final int MINUTE, final int ORIGIN, final boolean SET) {
+        int base   = MINUTE < MINUTES_PER_DAY ? 0 : MINUTES_PER_DAY;
+        int minute = SET ? nextSetMinute(MINUTE - base) : nextClearMinute(MINUTE - base);
+        if (minute < 0 && 0 == base) {
+            base   = MINUTES_PER_DAY;
+            minute = SET ? nextSetMinute(0) : nextClearMinute(0);
+        }
+        if (minute < 0) { return -1; }
+        minute += base;
+        // A run of set minutes always ends at the latest at ORIGIN + 1440, which is clear
+        return !SET || minute < ORIGIN + MINUTES_PER_DAY ? minute : -1;
+    }
+
+    // Sets the minutes in [FROM, TO)
+    void setRange(final int FROM, final int TO) {
+        if (FROM >= TO) { return; }
+        int  startWord = FROM >>> 6;
+        int  endWord   = (TO - 1) >>> 6;
+        long firstMask = -1L << FROM;
+        long lastMask  = -1L >>> -TO;
+        if (startWord == endWord) {
+            words[startWord] |= firstMask & lastMask;
+            return;
+        }
+        words[startWord] |= firstMask;
+        for (int i = startWord + 1 ; i < endWord ; i++) { words[i] = -1L; }
+        words[endWord] |= lastMask;
+    }
+
+    private void clearRange(final int FROM, final int TO) {
+        if (FROM >= TO) { return; }
+        int  startWord = FROM >>> 6;
+        int  endWord   = (TO - 1) >>> 6;
+        long firstMask = -1L << FROM;
+        long lastMask  = -1L >>> -TO;
+        if (startWord == endWord) {
+            words[startWord] &= ~(firstMask & lastMask);
+            return;
+        }
+        words[startWord] &= ~firstMask;
+        for (int i = startWord + 1 ; i < endWord ; i++) { words[i] = 0; }
+        words[endWord] &= ~lastMask;
+    }
+
+    private static void checkMinute(final int MINUTE) {
+        if (MINUTE < 0 || MINUTE >= MINUTES_PER_DAY) { throw new IllegalArgumentException("Minute of day out of range: " + MINUTE); }
+    }
+}
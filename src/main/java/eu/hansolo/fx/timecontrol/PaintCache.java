@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import javafx.geometry.Insets;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.Border;
+import javafx.scene.layout.BorderStroke;
+import javafx.scene.layout.BorderStrokeStyle;
+import javafx.scene.layout.BorderWidths;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.paint.Paint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+
+/**
+ * Interned Background and Border instances that are shared by all
+ * TimeControls. Handing out identical instances for equal paints
+ * avoids allocations and lets JavaFX skip CSS and layout work when
+ * the same fill is set again.
+ */
+final class PaintCache {
+    private static final int                    CACHE_CAPACITY = 64;
+    private static final double                 WIDTH_STEP     = 0.25;
+    private static final Map<Paint, Background> BACKGROUNDS    = createCache();
+    private static final Map<BorderKey, Border> BORDERS        = createCache();
+
+
+    // ******************** Constructors **************************************
+    private PaintCache() {}
+
+
+    // ******************** Methods *******************************************
+    static synchronized Background background(final Paint PAINT) {
+        Background background = BACKGROUNDS.get(PAINT);
+        if (null == background) {
+            background = new Background(new BackgroundFill(PAINT, CornerRadii.EMPTY, Insets.EMPTY));
+            BACKGROUNDS.put(PAINT, background);
+        }
+        return background;
+    }
+
+    /**
+     * Returns a solid border with the given paint, the width will be
+     * rounded to the nearest multiple of 0.25px.
+     */
+    static synchronized Border border(final Paint PAINT, final double WIDTH) {
+        final BorderKey KEY    = new BorderKey(PAINT, (int) Math.round(WIDTH / WIDTH_STEP));
+        Border          border = BORDERS.get(KEY);
+        if (null == border) {
+            border = new Border(new BorderStroke(PAINT, BorderStrokeStyle.SOLID, CornerRadii.EMPTY, new BorderWidths(KEY.width * WIDTH_STEP)));
+            BORDERS.put(KEY, border);
+        }
+        return border;
+    }
+
+    private static <K, V> Map<K, V> createCache() {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(final Map.Entry<K, V> ELDEST) { return size() > CACHE_CAPACITY; }
+        };
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class BorderKey {
+        private final Paint paint;
+        private final int   width;
+
+        BorderKey(final Paint PAINT, final int WIDTH) {
+            paint = PAINT;
+            width = WIDTH;
+        }
+
+        @Override public boolean equals(final Object OBJECT) {
+            if (this == OBJECT) { return true; }
+            if (!(OBJECT instanceof BorderKey)) { return false; }
+            BorderKey key = (BorderKey) OBJECT;
+            return width == key.width && Objects.equals(paint, key.paint);
+        }
+
+        @Override public int hashCode() { return 31 * Objects.hashCode(paint) + width; }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+
+/**
+ * Immutable value of a TimeRange at one point in time, it is emitted
+ * by the RangePublisher.
+ */
+public final class RangeChange {
+    private final int start;
+    private final int stop;
+
+
+    // ******************** Constructors **************************************
+    public RangeChange(final int START, final int STOP) {
+        TimeRange.checkSecondOfDay(START);
+        TimeRange.checkSecondOfDay(STOP);
+        start = START;
+        stop  = STOP;
+    }
+
+
+    // ******************** Methods *******************************************
+    public int getStart() { return start; }
+
+    public int getStop() { return stop; }
+
+    public int getDuration() { return TimeRange.duration(start, stop); }
+
+    public LocalTime getStartTime() { return LocalTime.ofSecondOfDay(start); }
+
+    public LocalTime getStopTime() { return LocalTime.ofSecondOfDay(stop); }
+
+    public Duration getDurationTime() { return Duration.ofSeconds(getDuration()); }
+
+    @Override public boolean equals(final Object OBJECT) {
+        if (this == OBJECT) { return true; }
+        if (!(OBJECT instanceof RangeChange)) { return false; }
+        RangeChange change = (RangeChange) OBJECT;
+        return start == change.start && stop == change.stop;
+    }
+
+    @Override public int hashCode() { return 31 * start + stop; }
+
+    @Override public String toString() { return "RangeChange[start=" + start + ", stop=" + stop + "]"; }
+}
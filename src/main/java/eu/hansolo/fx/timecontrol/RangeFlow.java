@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+/**
+ * The interfaces of java.util.concurrent.Flow (Reactive Streams) for
+ * Java 8. They have the same methods and semantics, so on Java 9 and
+ * later a RangeFlow.Publisher can be adapted to a Flow.Publisher with
+ * a few lines.
+ */
+public final class RangeFlow {
+
+    // ******************** Constructors **************************************
+    private RangeFlow() {}
+
+
+    // ******************** Inner Classes *************************************
+    @FunctionalInterface
+    public interface Publisher<T> {
+        void subscribe(Subscriber<? super T> SUBSCRIBER);
+    }
+
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription SUBSCRIPTION);
+        void onNext(T ITEM);
+        void onError(Throwable THROWABLE);
+        void onComplete();
+    }
+
+    public interface Subscription {
+        void request(long N);
+        void cancel();
+    }
+}
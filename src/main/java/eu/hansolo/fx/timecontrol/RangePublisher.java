@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Conflating publisher of range changes. Every subscriber only holds
+ * the latest value that has not been delivered yet, if it requests
+ * less values than are published it will skip the intermediate ones
+ * and always receive the latest value. publish() never blocks, the
+ * values will be delivered on the given executor (the common
+ * ForkJoinPool by default), so a slow subscriber cannot stall the
+ * JavaFX application thread. A new subscriber receives the current
+ * value first.
+ */
+public class RangePublisher implements RangeFlow.Publisher<RangeChange> {
+    private final    Executor                executor;
+    private final    List<RangeSubscription> subscriptions;
+    private volatile RangeChange             current;
+    private volatile boolean                 closed;
+
+
+    // ******************** Constructors **************************************
+    public RangePublisher() {
+        this(ForkJoinPool.commonPool());
+    }
+    public RangePublisher(final Executor EXECUTOR) {
+        if (null == EXECUTOR) { throw new IllegalArgumentException("EXECUTOR must not be null"); }
+        executor      = EXECUTOR;
+        subscriptions = new CopyOnWriteArrayList<>();
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override public void subscribe(final RangeFlow.Subscriber<? super RangeChange> SUBSCRIBER) {
+        if (null == SUBSCRIBER) { throw new NullPointerException("SUBSCRIBER must not be null"); }
+        RangeSubscription subscription = new RangeSubscription(SUBSCRIBER);
+        if (closed) {
+            subscription.complete();
+            return;
+        }
+        subscriptions.add(subscription);
+        RangeChange value = current;
+        if (null == value) {
+            subscription.schedule();
+        } else {
+            subscription.offer(value);
+        }
+    }
+
+    /**
+     * Replaces the pending value of all subscribers by the given value.
+     */
+    public void publish(final RangeChange CHANGE) {
+        if (closed || null == CHANGE) { return; }
+        current = CHANGE;
+        for (RangeSubscription subscription : subscriptions) { subscription.offer(CHANGE); }
+    }
+
+    /**
+     * Completes all subscribers after their pending value has been delivered.
+     */
+    public void close() {
+        closed = true;
+        for (RangeSubscription subscription : subscriptions) { subscription.complete(); }
+    }
+
+    public int getNumberOfSubscribers() { return subscriptions.size(); }
+
+
+    // ******************** Inner Classes *************************************
+    private final class RangeSubscription implements RangeFlow.Subscription {
+        private final    RangeFlow.Subscriber<? super RangeChange> subscriber;
+        private final    AtomicReference<RangeChange>              latest;
+        private final    AtomicLong                                demand;
+        private final    AtomicInteger                             wip;
+        private          boolean                                   subscribed;
+        private volatile boolean                                   done;
+        private volatile boolean                                   completed;
+        private volatile Throwable                                 error;
+
+        RangeSubscription(final RangeFlow.Subscriber<? super RangeChange> SUBSCRIBER) {
+            subscriber = SUBSCRIBER;
+            latest     = new AtomicReference<>();
+            demand     = new AtomicLong();
+            wip        = new AtomicInteger();
+        }
+
+        @Override public void request(final long N) {
+            if (N <= 0) {
+                error = new IllegalArgumentException("Non-positive request: " + N);
+            } else {
+                long requested;
+                long next;
+                do {
+                    requested = demand.get();
+                    next      = requested + N < 0 ? Long.MAX_VALUE : requested + N;
+                } while (!demand.compareAndSet(requested, next));
+            }
+            schedule();
+        }
+
+        @Override public void cancel() {
+            done = true;
+            subscriptions.remove(this);
+        }
+
+        void offer(final RangeChange CHANGE) {
+            latest.set(CHANGE);
+            schedule();
+        }
+
+        void complete() {
+            completed = true;
+            schedule();
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() != 0) { return; }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException exception) {
+                cancel();
+                subscriber.onError(exception);
+            }
+        }
+
+        // Only one thread at a time drains a subscription, the wip counter serializes the signals
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!subscribed) {
+                    subscribed = true;
+                    subscriber.onSubscribe(this);
+                }
+                while (!done) {
+                    if (null != error) {
+                        cancel();
+                        subscriber.onError(error);
+                        break;
+                    }
+                    if (0 == demand.get()) { break; }
+                    RangeChange change = latest.getAndSet(null);
+                    if (null == change) { break; }
+                    if (demand.get() != Long.MAX_VALUE) { demand.decrementAndGet(); }
+                    subscriber.onNext(change);
+                }
+                if (!done && completed && null == latest.get()) {
+                    cancel();
+                    subscriber.onComplete();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (0 != missed);
+        }
+    }
+}
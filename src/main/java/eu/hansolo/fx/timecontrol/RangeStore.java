@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+
+/**
+ * Memory mapped file with the start and stop of many ranges. The file
+ * starts with a header of 16 bytes (magic "TCRS", version, record size
+ * and number of records) followed by records of 12 bytes: the id, the
+ * start and the stop in seconds of the day, all big endian ints. The
+ * records are sorted by their id, so looking up an id is O(log n).
+ * Reads go directly to the mapped file, loading all ranges is one
+ * sequential pass over the file and storing them only writes the
+ * records whose values have changed, so only those pages get dirty.
+ * A RangeStore is not thread safe.
+ */
+public class RangeStore implements Closeable {
+    public  static final int              MAGIC         = 0x54435253; // TCRS
+    public  static final int              VERSION       = 1;
+    public  static final int              HEADER_SIZE   = 16;
+    public  static final int              RECORD_SIZE   = 12;
+    private static final int              ID_OFFSET     = 0;
+    private static final int              START_OFFSET  = 4;
+    private static final int              STOP_OFFSET   = 8;
+    private static final int              MAX_RECORDS   = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private final        FileChannel      channel;
+    private final        MappedByteBuffer buffer;
+    private final        int              size;
+
+
+    // ******************** Constructors **************************************
+    private RangeStore(final FileChannel CHANNEL, final MappedByteBuffer BUFFER, final int SIZE) {
+        channel = CHANNEL;
+        buffer  = BUFFER;
+        size    = SIZE;
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Creates a new store with one record per id, replaces an existing
+     * file. All ranges start with start and stop at 0.
+     * @param FILE the file of the store
+     * @param IDS  the ids of the records, must not contain duplicates
+     * @throws IllegalArgumentException if an id is contained twice
+     */
+    public static RangeStore create(final Path FILE, final int... IDS) throws IOException {
+        if (IDS.length > MAX_RECORDS) { throw new IllegalArgumentException("Too many records: " + IDS.length); }
+        int[] ids = IDS.clone();
+        Arrays.sort(ids);
+        for (int i = 1 ; i < ids.length ; i++) {
+            if (ids[i] == ids[i - 1]) { throw new IllegalArgumentException("Duplicate id: " + ids[i]); }
+        }
+        FileChannel channel = FileChannel.open(FILE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE + (long) ids.length * RECORD_SIZE);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_SIZE);
+            buffer.putInt(12, ids.length);
+            for (int i = 0 ; i < ids.length ; i++) { buffer.putInt(offset(i) + ID_OFFSET, ids[i]); }
+            return new RangeStore(channel, buffer, ids.length);
+        } catch (IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Opens an existing store for reading and writing.
+     * @throws IOException if the file is no range store of a supported version
+     */
+    public static RangeStore open(final Path FILE) throws IOException {
+        FileChannel channel = FileChannel.open(FILE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) { throw new IOException("Not a range store: " + FILE); }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {}
+            if (header.getInt(0) != MAGIC) { throw new IOException("Not a range store: " + FILE); }
+            if (header.getInt(4) != VERSION) { throw new IOException("Unsupported range store version " + header.getInt(4) + ": " + FILE); }
+            int recordSize = header.getInt(8);
+            int size       = header.getInt(12);
+            if (recordSize != RECORD_SIZE || size < 0 || size > MAX_RECORDS || fileSize < HEADER_SIZE + (long) size * RECORD_SIZE) {
+                throw new IOException("Corrupt range store: " + FILE);
+            }
+            MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE + (long) size * RECORD_SIZE);
+            return new RangeStore(channel, buffer, size);
+        } catch (IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    public int size() { return size; }
+
+    public int getId(final int INDEX) { return buffer.getInt(checkedOffset(INDEX) + ID_OFFSET); }
+
+    public int getStart(final int INDEX) { return buffer.getInt(checkedOffset(INDEX) + START_OFFSET); }
+
+    public int getStop(final int INDEX) { return buffer.getInt(checkedOffset(INDEX) + STOP_OFFSET); }
+
+    /**
+     * Returns the index of the record with the given id or -1 if there
+     * is no such record.
+     */
+    public int indexOf(final int ID) {
+        int low  = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid   = (low + high) >>> 1;
+            int midId = buffer.getInt(offset(mid) + ID_OFFSET);
+            if (midId < ID) {
+                low = mid + 1;
+            } else if (midId > ID) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes start and stop of the record at INDEX, the record will only
+     * be written if one of the values differs.
+     * @return true if the record has been written
+     */
+    public boolean set(final int INDEX, final int START, final int STOP) {
+        int offset = checkedOffset(INDEX);
+        TimeRange.checkSecondOfDay(START);
+        TimeRange.checkSecondOfDay(STOP);
+        if (buffer.getInt(offset + START_OFFSET) == START && buffer.getInt(offset + STOP_OFFSET) == STOP) { return false; }
+        buffer.putInt(offset + START_OFFSET, START);
+        buffer.putInt(offset + STOP_OFFSET, STOP);
+        return true;
+    }
+
+    /**
+     * Sets start and stop of the range that RANGE_FOR_ID returns for the
+     * id of each record, records for which it returns null are skipped.
+     * The file is paged in with one sequential read before.
+     * Use id -> controls.get(id).getTimeRange() to restore TimeControls.
+     * @return the number of ranges that have been set
+     */
+    public int load(final IntFunction<TimeRange> RANGE_FOR_ID) {
+        buffer.load();
+        int loaded = 0;
+        for (int i = 0 ; i < size ; i++) {
+            int       offset = offset(i);
+            TimeRange range  = RANGE_FOR_ID.apply(buffer.getInt(offset + ID_OFFSET));
+            if (null == range) { continue; }
+            range.set(buffer.getInt(offset + START_OFFSET), buffer.getInt(offset + STOP_OFFSET));
+            loaded++;
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes start and stop of the range that RANGE_FOR_ID returns for the
+     * id of each record, only records whose values differ will be written.
+     * Records for which it returns null are skipped. Call force() to
+     * flush the changes to the disk.
+     * @return the number of records that have been written
+     */
+    public int store(final IntFunction<TimeRange> RANGE_FOR_ID) {
+        int written = 0;
+        for (int i = 0 ; i < size ; i++) {
+            TimeRange range = RANGE_FOR_ID.apply(buffer.getInt(offset(i) + ID_OFFSET));
+            if (null != range && set(i, range.getStart(), range.getStop())) { written++; }
+        }
+        return written;
+    }
+
+    /**
+     * Returns a read only view of the records in the mapped file without
+     * copying them. Record i consists of the ints at 3 * i (id), 3 * i + 1
+     * (start) and 3 * i + 2 (stop).
+     */
+    public IntBuffer records() {
+        ByteBuffer records = buffer.duplicate();
+        records.position(HEADER_SIZE);
+        return records.slice().asIntBuffer().asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the changed pages to the disk.
+     */
+    public void force() { buffer.force(); }
+
+    /**
+     * Flushes the changes and closes the file. The mapping itself will be
+     * released by the garbage collector, the store must not be used after
+     * it has been closed.
+     */
+    @Override public void close() throws IOException {
+        try {
+            buffer.force();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static int offset(final int INDEX) { return HEADER_SIZE + INDEX * RECORD_SIZE; }
+
+    private int checkedOffset(final int INDEX) {
+        if (INDEX < 0 || INDEX >= size) { throw new IndexOutOfBoundsException("Index: " + INDEX + ", Size: " + size); }
+        return offset(INDEX);
+    }
+}
@@ -16,27 +16,29 @@
 
 package eu.hansolo.fx.timecontrol;
 
+import eu.hansolo.fx.timecontrol.TimeControlMetrics.Operation;
 import eu.hansolo.fx.timecontrol.fonts.Fonts;
+import eu.hansolo.fx.timecontrol.fonts.GlyphMetrics;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.DefaultProperty;
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.BooleanPropertyBase;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.IntegerPropertyBase;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ObjectPropertyBase;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.collections.ObservableList;
-import javafx.geometry.Point2D;
-import javafx.geometry.Pos;
 import javafx.geometry.VPos;
 import javafx.scene.Node;
-import javafx.geometry.Insets;
+import javafx.geometry.Point2D;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundFill;
-import javafx.scene.layout.Border;
-import javafx.scene.layout.BorderStroke;
-import javafx.scene.layout.BorderStrokeStyle;
-import javafx.scene.layout.BorderWidths;
-import javafx.scene.layout.CornerRadii;
-import javafx.scene.layout.HBox;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.TouchPoint;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
@@ -52,12 +54,16 @@ import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 import javafx.scene.transform.Rotate;
+import javafx.scene.transform.Scale;
 
 import java.sql.Time;
 import java.time.Duration;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 
 /**
@@ -67,80 +73,138 @@ import java.util.Locale;
  */
 @DefaultProperty("children")
 public class TimeControl extends Region {
-    private enum TickLabelOrientation { ORTHOGONAL,  HORIZONTAL, TANGENT }
+    public enum RenderMode { NODES, CANVAS }
     private enum TouchPointType { START, STOP }
-    private static final DateTimeFormatter         TIME_FORMAT      = DateTimeFormatter.ofPattern("HH:mm");
-    private static final DateTimeFormatter         HOUR_FORMAT      = DateTimeFormatter.ofPattern("HH");
-    private static final DateTimeFormatter         MINUTE_FORMAT    = DateTimeFormatter.ofPattern("mm");
-    private static final double                    ANGLE_STEP       = 0.00416667; // degrees per seconds a day
-    private static final double                    PREFERRED_WIDTH  = 400;
-    private static final double                    PREFERRED_HEIGHT = 505;
-    private static final double                    MINIMUM_WIDTH    = 40;
-    private static final double                    MINIMUM_HEIGHT   = 50;
-    private static final double                    MAXIMUM_WIDTH    = 1024;
-    private static final double                    MAXIMUM_HEIGHT   = 1024;
-    private static final double                    ASPECT_RATIO     = PREFERRED_HEIGHT / PREFERRED_WIDTH;
-    private              double                    size;
-    private              double                    width;
-    private              double                    height;
-    private              Text                      startText;
-    private              Text                      startTimeText;
-    private              Text                      stopText;
-    private              Text                      stopTimeText;
-    private              Text                      hourText;
-    private              Text                      hourUnitText;
-    private              Text                      minuteText;
-    private              Text                      minuteUnitText;
-    private              HBox                      durationBox;
-    private              Canvas                    canvas;
-    private              Arc                       barBackground;
-    private              Arc                       bar;
-    private              Rotate                    barRotate;
-    private              Circle                    touchPointStart;
-    private              Circle                    touchPointStop;
-    private              Rotate                    touchRotate;
-    private              double                    iconSize;
-    private              Region                    startIcon;
-    private              Region                    stopIcon;
-    private              Region                    startPointIcon;
-    private              Region                    stopPointIcon;
-    private              GraphicsContext           ctx;
-    private              Pane                      pane;
-    private              double                    mouseScaleX;
-    private              double                    mouseScaleY;
-    private              ObjectProperty<Color>     barBackgroundColor;
-    private              ObjectProperty<Color>     barColor;
-    private              ObjectProperty<Color>     backgroundColor;
-    private              ObjectProperty<Color>     textColor;
-    private              ObjectProperty<Duration>  duration;
-    private              Paint                     backgroundPaint;
-    private              Paint                     borderPaint;
-    private              double                    borderWidth;
-    private              ObjectProperty<LocalTime> startTime;
-    private              ObjectProperty<LocalTime> stopTime;
+    private static final double                           ANGLE_STEP       = DialGeometry.ANGLE_STEP;
+    private static final double                           PREFERRED_WIDTH  = 400;
+    private static final double                           PREFERRED_HEIGHT = 505;
+    private static final double                           MINIMUM_WIDTH    = 40;
+    private static final double                           MINIMUM_HEIGHT   = 50;
+    private static final double                           MAXIMUM_WIDTH    = 1024;
+    private static final double                           MAXIMUM_HEIGHT   = 1024;
+    static final         double                           ASPECT_RATIO     = PREFERRED_HEIGHT / PREFERRED_WIDTH;
+    private static final double                           HEATMAP_ALPHA    = 0.6;
+    private static final long                             NO_POST          = 0;
+    private static final double                           MAX_LIVE_SCALE   = 1.25;
+    private static final int                              CANVAS_SIZE_STEP = 32;
+    private static final int                              DIAL_SIZE_STEP   = 16;
+    private static final javafx.util.Duration             SETTLE_DELAY     = javafx.util.Duration.millis(150);
+    private static final int                              NO_TOUCH         = -1;
+    private static       String                           userAgentStyleSheet;
+    private final        RenderMode                       renderMode;
+    private              double                           size;
+    private              double                           width;
+    private              double                           height;
+    private              Text                             startText;
+    private              Text                             startTimeText;
+    private              Text                             stopText;
+    private              Text                             stopTimeText;
+    private              Text                             hourText;
+    private              Text                             hourUnitText;
+    private              Text                             minuteText;
+    private              Text                             minuteUnitText;
+    private              ImageView                        dial;
+    private              Canvas                           ringCanvas;
+    private              Canvas                           canvas;
+    private              GraphicsContext                  ctx;
+    private              Image                            dialImage;
+    private              int                              dialImageSize;
+    private              Color                            dialImageColor;
+    private              TouchPointType                   activeTouchPoint;
+    private              Arc                              barBackground;
+    private              Arc                              bar;
+    private              Rotate                           barRotate;
+    private              Circle                           touchPointStart;
+    private              Circle                           touchPointStop;
+    private              Rotate                           touchRotate;
+    private              double                           iconSize;
+    private              Region                           startIcon;
+    private              Region                           stopIcon;
+    private              Region                           startPointIcon;
+    private              Region                           stopPointIcon;
+    private              Pane                             pane;
+    private              ObjectProperty<Color>            barBackgroundColor;
+    private              ObjectProperty<Color>            barColor;
+    private              ObjectProperty<Color>            backgroundColor;
+    private              ObjectProperty<Color>            textColor;
+    private              AdapterProperty<Duration>        duration;
+    private              TimeRange                        range;
+    private              TimeRange                        boundRange;
+    private              Paint                            backgroundPaint;
+    private              Paint                            borderPaint;
+    private              double                           borderWidth;
+    private              AdapterProperty<LocalTime>       startTime;
+    private              AdapterProperty<LocalTime>       stopTime;
+    private              int                              adapterUpdateDepth;
+    private              IntegerProperty                  snapStep;
+    private              BooleanProperty                  twentyFourHour;
+    private              ObjectProperty<Locale>           locale;
+    private              String[]                         timeLabels;
+    private              ObjectProperty<DaySchedule>      schedule;
+    private              DaySchedule                      observedSchedule;
+    private              InvalidationListener             scheduleListener;
+    private              int                              scheduleIndex;
+    private              TouchPointType                   scheduleEdge;
+    private              ObjectProperty<ActivityHeatmap>  activityHeatmap;
+    private              ActivityHeatmap                  observedHeatmap;
+    private              Runnable                         heatmapRequest;
+    private              boolean                          heatmapDirty;
+    private              long                             heatmapVersion;
+    private              PauseTransition                  heatmapTimer;
+    private final        AtomicLong                       postedRange;
+    private final        AtomicBoolean                    postScheduled;
+    private              Runnable                         postRequest;
+    private              BooleanProperty                  liveResize;
+    private              Scale                            paneScale;
+    private              PauseTransition                  settleTimer;
+    private              boolean                          resizeSettled;
+    private              int                              startTouchId;
+    private              int                              stopTouchId;
+    private              long                             inputNanos;
+    private              boolean                          layoutDirty;
+    private              boolean                          dialDirty;
+    private              boolean                          paintDirty;
+    private              TimeControlMetrics               metrics;
+    private              AdapterProperty<LocalTime>       committedStartTime;
+    private              AdapterProperty<LocalTime>       committedStopTime;
+    private              AdapterProperty<Duration>        committedDuration;
+    private              ObjectProperty<Duration>         commitDelay;
+    private              PauseTransition                  commitTimer;
+    private              boolean                          dragging;
+    private              RangePublisher                   rangePublisher;
 
 
 
     // ******************** Constructors **************************************
     public TimeControl() {
-        getStylesheets().add(TimeControl.class.getResource("timecontrol.css").toExternalForm());
+        this(RenderMode.NODES);
+    }
+    /**
+     * Creates a TimeControl with the given render mode. In RenderMode.CANVAS
+     * the whole control will be drawn into one Canvas, which reduces the
+     * number of nodes per control from about 20 to 2. This is useful for
+     * dashboards that show hundreds of controls.
+     * @param RENDER_MODE the render mode, null results in RenderMode.NODES
+     */
+    public TimeControl(final RenderMode RENDER_MODE) {
+        renderMode = null == RENDER_MODE ? RenderMode.NODES : RENDER_MODE;
         barBackgroundColor = new ObjectPropertyBase<Color>(Color.web("#171717")) {
-            @Override protected void invalidated() { resize(); }
+            @Override protected void invalidated() { invalidatePaint(); }
             @Override public Object getBean() { return TimeControl.this; }
             @Override public String getName() { return "barBackgroundColor"; }
         };
         barColor           = new ObjectPropertyBase<Color>(Color.web("#ffb500")) {
-            @Override protected void invalidated() { resize(); }
+            @Override protected void invalidated() { invalidatePaint(); }
             @Override public Object getBean() { return TimeControl.this; }
             @Override public String getName() { return "barColor"; }
         };
         backgroundColor    = new ObjectPropertyBase<Color>(Color.web("#0d0d0d")) {
-            @Override protected void invalidated() { backgroundPaint = get(); redraw(); }
+            @Override protected void invalidated() { backgroundPaint = get(); invalidatePaint(); }
             @Override public Object getBean() { return TimeControl.this; }
             @Override public String getName() { return "backgroundColor"; }
         };
         textColor          = new ObjectPropertyBase<Color>(Color.WHITE) {
-            @Override protected void invalidated() { resize(); }
+            @Override protected void invalidated() { invalidateDial(); }
             @Override public Object getBean() { return TimeControl.this; }
             @Override public String getName() { return "textColor"; }
         };
@@ -148,25 +212,85 @@ public class TimeControl extends Region {
         backgroundPaint    = Color.web("#0d0d0d");
         borderPaint        = Color.TRANSPARENT;
         borderWidth        = 0d;
-        mouseScaleX        = 1.0;
-        mouseScaleY        = 1.0;
-        startTime          = new ObjectPropertyBase<LocalTime>(LocalTime.of(0, 0)) {
-            @Override protected void invalidated() { updateBar(); }
+        layoutDirty        = true;
+        dialDirty          = true;
+        paintDirty         = true;
+        range              = new TimeRange();
+        startTime          = new AdapterProperty<>(LocalTime.ofSecondOfDay(range.getStart()), "startTime", TIME -> range.setStart(TIME.toSecondOfDay()));
+        stopTime           = new AdapterProperty<>(LocalTime.ofSecondOfDay(range.getStop()), "stopTime", TIME -> range.setStop(TIME.toSecondOfDay()));
+        duration           = new AdapterProperty<>(Duration.ofSeconds(range.getDuration()), "duration", null);
+        snapStep           = new IntegerPropertyBase(0) {
+            @Override public void set(final int MINUTES) {
+                int minutesPerDay = DialGeometry.SECONDS_PER_DAY / 60;
+                if (MINUTES < 0 || MINUTES >= minutesPerDay || (MINUTES > 0 && minutesPerDay % MINUTES != 0)) {
+                    throw new IllegalArgumentException("Snap step must be 0 or divide 1440 minutes: " + MINUTES);
+                }
+                super.set(MINUTES);
+            }
+            @Override public Object getBean() { return TimeControl.this; }
+            @Override public String getName() { return "snapStep"; }
+        };
+        twentyFourHour     = new BooleanPropertyBase(true) {
+            @Override protected void invalidated() { updateTimeLabels(); }
             @Override public Object getBean() { return TimeControl.this; }
-            @Override public String getName() { return "startTime"; }
+            @Override public String getName() { return "twentyFourHour"; }
         };
-        stopTime           = new ObjectPropertyBase<LocalTime>(LocalTime.of(0, 0)) {
-            @Override protected void invalidated() { updateBar(); }
+        locale             = new ObjectPropertyBase<Locale>(Locale.getDefault()) {
+            @Override protected void invalidated() { updateTimeLabels(); }
             @Override public Object getBean() { return TimeControl.this; }
-            @Override public String getName() { return "stopTime"; }
+            @Override public String getName() { return "locale"; }
         };
-        duration           = new ObjectPropertyBase<Duration>(Duration.between(getStopTime(), getStartTime())) {
+        timeLabels         = TimeLabels.timeTable(getLocale(), isTwentyFourHour());
+        scheduleIndex      = -1;
+        scheduleListener   = o -> {
+            if (scheduleIndex >= observedSchedule.size()) { scheduleIndex = -1; }
+            invalidatePaint();
+        };
+        schedule           = new ObjectPropertyBase<DaySchedule>() {
+            @Override protected void invalidated() { observeSchedule(get()); }
+            @Override public Object getBean() { return TimeControl.this; }
+            @Override public String getName() { return "schedule"; }
+        };
+        heatmapRequest     = () -> Platform.runLater(this::heatmapChanged);
+        startTouchId       = NO_TOUCH;
+        stopTouchId        = NO_TOUCH;
+        liveResize         = new BooleanPropertyBase(false) {
+            @Override protected void invalidated() {
+                resizeSettled = true;
+                invalidateLayout();
+            }
             @Override public Object getBean() { return TimeControl.this; }
-            @Override public String getName() { return "duration"; }
+            @Override public String getName() { return "liveResize"; }
+        };
+        postedRange        = new AtomicLong(NO_POST);
+        postScheduled      = new AtomicBoolean();
+        postRequest        = () -> {
+            if (null == getScene()) {
+                applyPosted();
+            } else {
+                requestLayout();
+            }
+        };
+        activityHeatmap    = new ObjectPropertyBase<ActivityHeatmap>() {
+            @Override protected void invalidated() { observeHeatmap(get()); }
+            @Override public Object getBean() { return TimeControl.this; }
+            @Override public String getName() { return "activityHeatmap"; }
+        };
+        committedStartTime = new AdapterProperty<>(getStartTime(), "committedStartTime", null);
+        committedStopTime  = new AdapterProperty<>(getStopTime(), "committedStopTime", null);
+        committedDuration  = new AdapterProperty<>(getDuration(), "committedDuration", null);
+        commitDelay        = new ObjectPropertyBase<Duration>(Duration.ofMillis(500)) {
+            @Override protected void invalidated() {
+                if (null == get() || get().isNegative()) { set(Duration.ZERO); }
+                if (null != commitTimer) { commitTimer.setDuration(javafx.util.Duration.millis(get().toMillis())); }
+            }
+            @Override public Object getBean() { return TimeControl.this; }
+            @Override public String getName() { return "commitDelay"; }
         };
 
         initGraphics();
         registerListeners();
+        if (!Fonts.isLoaded()) { Fonts.whenLoaded(() -> Platform.runLater(this::fontsLoaded)); }
     }
 
 
@@ -182,7 +306,36 @@ public class TimeControl extends Region {
         }
 
         getStyleClass().add("time-control");
+    }
 
+    // Called on the first layout, controls that are never shown will not create any nodes
+    private void createGraphics() {
+        if (RenderMode.CANVAS == renderMode) {
+            canvas = new Canvas(PREFERRED_WIDTH, PREFERRED_HEIGHT);
+            ctx    = canvas.getGraphicsContext2D();
+            pane   = new Pane(canvas);
+        } else {
+            initNodes();
+            pane = new Pane(startIcon, startText, startTimeText, stopIcon, stopText, stopTimeText, hourText, hourUnitText, minuteText, minuteUnitText, dial, barBackground, ringCanvas, bar, touchPointStart, touchPointStop, startPointIcon, stopPointIcon);
+        }
+        pane.setBackground(PaintCache.background(backgroundPaint));
+        pane.setBorder(PaintCache.border(borderPaint, borderWidth));
+        paneScale = new Scale(1, 1, 0, 0);
+        pane.getTransforms().add(paneScale);
+
+        getChildren().setAll(pane);
+        // The css pass of this pulse is over, the icons need their shapes before they will be rendered
+        pane.applyCss();
+
+        registerNodeListeners();
+        updateScheduleVisibility();
+        updateBar();
+        layoutDirty = true;
+        dialDirty   = true;
+        paintDirty  = true;
+    }
+
+    private void initNodes() {
         startIcon = new Region();
         startIcon.getStyleClass().add("start-icon");
 
@@ -202,28 +355,31 @@ public class TimeControl extends Region {
         stopTimeText.setTextOrigin(VPos.TOP);
 
         hourText = new Text("0");
-        hourText.setTextOrigin(VPos.CENTER);
+        hourText.setTextOrigin(VPos.BASELINE);
 
         hourUnitText = new Text("h");
-        hourUnitText.setTextOrigin(VPos.BOTTOM);
+        hourUnitText.setTextOrigin(VPos.BASELINE);
 
         minuteText = new Text("0");
-        minuteText.setTextOrigin(VPos.CENTER);
+        minuteText.setTextOrigin(VPos.BASELINE);
 
         minuteUnitText = new Text("m");
-        minuteUnitText.setTextOrigin(VPos.BOTTOM);
-
-        durationBox = new HBox(hourText, hourUnitText, minuteText, minuteUnitText);
-        durationBox.setAlignment(Pos.BASELINE_CENTER);
+        minuteUnitText.setTextOrigin(VPos.BASELINE);
 
-        canvas = new Canvas(400, 400);
-        ctx    = canvas.getGraphicsContext2D();
+        dial = new ImageView();
+        dial.setSmooth(true);
+        dial.setPreserveRatio(true);
+        dial.setMouseTransparent(true);
 
         barBackground = new Arc(200, 350, 200, 200, 0, 360);
         barBackground.setStrokeLineCap(StrokeLineCap.BUTT);
         barBackground.setType(ArcType.OPEN);
         barBackground.setFill(null);
 
+        ringCanvas = new Canvas(0, 0);
+        ringCanvas.setMouseTransparent(true);
+        ringCanvas.setVisible(false);
+
         barRotate = new Rotate(-90, PREFERRED_WIDTH * 0.5, PREFERRED_HEIGHT * 0.6039604);
 
         bar = new Arc(200, 350, 200, 200, 0, 0);
@@ -247,19 +403,101 @@ public class TimeControl extends Region {
         stopPointIcon = new Region();
         stopPointIcon.getStyleClass().add("stop-icon");
         stopPointIcon.setMouseTransparent(true);
-
-        pane = new Pane(startIcon, startText, startTimeText, stopIcon, stopText, stopTimeText, durationBox, canvas, barBackground, bar, touchPointStart, touchPointStop, startPointIcon, stopPointIcon);
-        pane.setBackground(new Background(new BackgroundFill(backgroundPaint, CornerRadii.EMPTY, Insets.EMPTY)));
-        pane.setBorder(new Border(new BorderStroke(borderPaint, BorderStrokeStyle.SOLID, CornerRadii.EMPTY, new BorderWidths(borderWidth))));
-
-        getChildren().setAll(pane);
     }
 
     private void registerListeners() {
-        widthProperty().addListener(o -> resize());
-        heightProperty().addListener(o -> resize());
-        touchPointStart.setOnMouseDragged(evt -> touchRotate(evt.getSceneX() * mouseScaleX, evt.getSceneY() * mouseScaleY, TouchPointType.START));
-        touchPointStop.setOnMouseDragged(evt -> touchRotate(evt.getSceneX() * mouseScaleX, evt.getSceneY() * mouseScaleY, TouchPointType.STOP));
+        // All adapters take their new values before the first of them notifies its listeners
+        range.addListener(o -> {
+            adapterUpdateDepth++;
+            try {
+                if (getStartTime().toSecondOfDay() != range.getStart()) { startTime.set(LocalTime.ofSecondOfDay(range.getStart())); }
+                if (getStopTime().toSecondOfDay() != range.getStop()) { stopTime.set(LocalTime.ofSecondOfDay(range.getStop())); }
+                if (getDuration().getSeconds() != range.getDuration()) { duration.set(Duration.ofSeconds(range.getDuration())); }
+            } finally {
+                adapterUpdateDepth--;
+            }
+            updateBar();
+            rangeChanged();
+            fireAdapters();
+        });
+        widthProperty().addListener(o -> invalidateLayout());
+        heightProperty().addListener(o -> invalidateLayout());
+    }
+
+    private void registerNodeListeners() {
+        if (RenderMode.CANVAS == renderMode) {
+            // Mouse events that are synthesized from tracked touches are handled by the touch handlers
+            canvas.setOnMousePressed(evt -> {
+                if (evt.isSynthesized() && isTouching()) { return; }
+                dragging = true;
+                canvasPressed(evt.getX(), evt.getY());
+            });
+            canvas.setOnMouseDragged(evt -> {
+                if (evt.isSynthesized() && isTouching()) { return; }
+                canvasDragged(evt.getX(), evt.getY());
+            });
+            canvas.setOnMouseReleased(evt -> {
+                if (evt.isSynthesized() && isTouching()) { return; }
+                activeTouchPoint = null;
+                dragReleased();
+            });
+            // Touches on a touch point are tracked by their id, so both touch points can be dragged at once
+            canvas.setOnTouchPressed(evt -> {
+                TouchPoint touchPoint = evt.getTouchPoint();
+                if (null != observedSchedule) { return; }
+                if (NO_TOUCH == stopTouchId && isTouchPointHit(range.getStop(), touchPoint.getX(), touchPoint.getY())) {
+                    touchPressed(touchPoint.getId(), TouchPointType.STOP);
+                } else if (NO_TOUCH == startTouchId && isTouchPointHit(range.getStart(), touchPoint.getX(), touchPoint.getY())) {
+                    touchPressed(touchPoint.getId(), TouchPointType.START);
+                }
+            });
+            canvas.setOnTouchMoved(evt -> touchMoved(evt.getTouchPoint(), evt.getTouchPoint().getX(), evt.getTouchPoint().getY()));
+            canvas.setOnTouchReleased(evt -> touchReleased(evt.getTouchPoint().getId()));
+        } else {
+            touchPointStart.setOnMousePressed(evt -> {
+                if (evt.isSynthesized() && isTouching()) { return; }
+                dragging = true;
+            });
+            touchPointStart.setOnMouseDragged(evt -> {
+                if (evt.isSynthesized()) { return; }
+                Point2D point = pane.sceneToLocal(evt.getSceneX(), evt.getSceneY());
+                touchRotate(point.getX(), point.getY(), TouchPointType.START);
+            });
+            touchPointStart.setOnMouseReleased(evt -> {
+                if (evt.isSynthesized() && isTouching()) { return; }
+                dragReleased();
+            });
+            touchPointStop.setOnMousePressed(evt -> {
+                if (evt.isSynthesized() && isTouching()) { return; }
+                dragging = true;
+            });
+            touchPointStop.setOnMouseDragged(evt -> {
+                if (evt.isSynthesized()) { return; }
+                Point2D point = pane.sceneToLocal(evt.getSceneX(), evt.getSceneY());
+                touchRotate(point.getX(), point.getY(), TouchPointType.STOP);
+            });
+            touchPointStop.setOnMouseReleased(evt -> {
+                if (evt.isSynthesized() && isTouching()) { return; }
+                dragReleased();
+            });
+            // A touch is delivered to the node it started on, so each touch point gets its own touches
+            touchPointStart.setOnTouchPressed(evt -> {
+                if (NO_TOUCH == startTouchId) { touchPressed(evt.getTouchPoint().getId(), TouchPointType.START); }
+            });
+            touchPointStart.setOnTouchMoved(evt -> touchMovedOnNode(evt.getTouchPoint()));
+            touchPointStart.setOnTouchReleased(evt -> touchReleased(evt.getTouchPoint().getId()));
+            touchPointStop.setOnTouchPressed(evt -> {
+                if (NO_TOUCH == stopTouchId) { touchPressed(evt.getTouchPoint().getId(), TouchPointType.STOP); }
+            });
+            touchPointStop.setOnTouchMoved(evt -> touchMovedOnNode(evt.getTouchPoint()));
+            touchPointStop.setOnTouchReleased(evt -> touchReleased(evt.getTouchPoint().getId()));
+            barBackground.setOnMousePressed(evt -> {
+                dragging = true;
+                selectScheduleRange(evt.getX(), evt.getY());
+            });
+            barBackground.setOnMouseDragged(evt -> dragScheduleRange(evt.getX(), evt.getY()));
+            barBackground.setOnMouseReleased(evt -> dragReleased());
+        }
     }
 
 
@@ -273,6 +511,63 @@ public class TimeControl extends Region {
 
     @Override public ObservableList<Node> getChildren() { return super.getChildren(); }
 
+    /**
+     * The stylesheet is shared by all instances and resolved only once,
+     * stylesheets of the scene or the control take precedence.
+     */
+    @Override public String getUserAgentStylesheet() {
+        if (null == userAgentStyleSheet) { userAgentStyleSheet = TimeControl.class.getResource("timecontrol.css").toExternalForm(); }
+        return userAgentStyleSheet;
+    }
+
+    /**
+     * Resolves all pending invalidations once per pulse, no matter how
+     * many properties have changed since the last pulse.
+     */
+    @Override protected void layoutChildren() {
+        if (null == pane) { createGraphics(); }
+        if (postScheduled.get()) { applyPosted(); }
+        boolean measure = TimeControlMetrics.isEnabled();
+        if (layoutDirty) {
+            layoutDirty = false;
+            long start = measure ? System.nanoTime() : 0;
+            if (!scaleToSize()) { resize(); }
+            if (measure) { getMetrics().record(Operation.RESIZE, start); }
+        }
+        super.layoutChildren();
+        if (dialDirty) {
+            dialDirty = false;
+            drawDial();
+        }
+        if (null != observedHeatmap && (heatmapDirty || paintDirty)) {
+            heatmapDirty = false;
+            // Another control that shows the same heatmap might have drained the new events already
+            long now = System.currentTimeMillis();
+            observedHeatmap.drain(now);
+            scheduleHeatmapExpiry(now);
+            if (observedHeatmap.getVersion() != heatmapVersion) {
+                heatmapVersion = observedHeatmap.getVersion();
+                if (!paintDirty) {
+                    if (RenderMode.CANVAS == renderMode) {
+                        drawCanvas();
+                    } else {
+                        drawRing();
+                    }
+                }
+            }
+        }
+        if (paintDirty) {
+            paintDirty = false;
+            long start = measure ? System.nanoTime() : 0;
+            redraw();
+            if (measure) { getMetrics().record(Operation.REDRAW, start); }
+        }
+        if (0 != inputNanos) {
+            if (measure) { getMetrics().record(Operation.INPUT_LATENCY, inputNanos); }
+            inputNanos = 0;
+        }
+    }
+
     public Color getBackgroundColor() { return backgroundColor.get(); }
     public void setBackgroundColor(final Color COLOR) { backgroundColor.set(COLOR); }
     public ObjectProperty<Color> backgroundColorProperty() { return backgroundColor; }
@@ -300,119 +595,565 @@ public class TimeControl extends Region {
     public Duration getDuration() { return duration.get(); }
     public ReadOnlyObjectProperty<Duration> durationProperty() { return duration; }
 
+    /**
+     * Sets start and stop time at once, the bar will be updated once and
+     * the duration will not take any intermediate value.
+     */
+    public void setRange(final LocalTime START, final LocalTime STOP) { range.set(START.toSecondOfDay(), STOP.toSecondOfDay()); }
+
+    /**
+     * Thread safe variants of setStartTime(), setStopTime() and setRange()
+     * that can be called from any thread. The posted values are stored in
+     * one slot and applied on the JavaFX application thread in the next
+     * layout pass of the control, values that are posted before that only
+     * replace the pending ones. However many threads post, the control
+     * schedules at most one runnable and applies one range per pulse.
+     */
+    public void postStartTime(final LocalTime TIME) { post(TIME.toSecondOfDay(), -1); }
+    public void postStopTime(final LocalTime TIME) { post(-1, TIME.toSecondOfDay()); }
+    public void postRange(final LocalTime START, final LocalTime STOP) { post(START.toSecondOfDay(), STOP.toSecondOfDay()); }
+
+    /**
+     * Runs the given changes as one update. Changes of the time range
+     * will be fired once at the end and result in one update of the bar,
+     * the listeners of start time, stop time and duration will be notified
+     * after all of them have their final values. Changes of the colors are
+     * always collected until the next pulse.
+     */
+    public void update(final Runnable CHANGES) {
+        adapterUpdateDepth++;
+        try {
+            range.update(CHANGES);
+        } finally {
+            adapterUpdateDepth--;
+            fireAdapters();
+        }
+    }
 
-    private void drawTickmarks() {
-        double  sinValue;
-        double  cosValue;
-        double  ctxSize            = canvas.getWidth();
-        double  startAngle         = 180;
-        double  angleStep          = 3.75;
-        Point2D center             = new Point2D(ctxSize * 0.5, ctxSize * 0.5);
-        Color   minorTickMarkColor = Color.color(getTextColor().getRed(), getTextColor().getGreen(), getTextColor().getBlue(), 0.25);
-        Color   majorTickMarkColor = Color.color(getTextColor().getRed(), getTextColor().getGreen(), getTextColor().getBlue(), 0.5);
-        Font    font               = Fonts.robotoLight(width * 0.04);
-        ctx.clearRect(0, 0, ctxSize, ctxSize);
-        ctx.setLineCap(StrokeLineCap.BUTT);
-        ctx.setFont(font);
-        ctx.setLineWidth(ctxSize * 0.005);
-        for (double angle = 0, counter = 0 ; Double.compare(counter, 95) <= 0 ; angle -= angleStep, counter++) {
-            sinValue = Math.sin(Math.toRadians(angle + startAngle));
-            cosValue = Math.cos(Math.toRadians(angle + startAngle));
-
-            Point2D innerPoint       = new Point2D(center.getX() + ctxSize * 0.465 * sinValue, center.getY() + ctxSize * 0.465 * cosValue);
-            Point2D innerMinutePoint = new Point2D(center.getX() + ctxSize * 0.478 * sinValue, center.getY() + ctxSize * 0.478 * cosValue);
-            Point2D outerPoint       = new Point2D(center.getX() + ctxSize * 0.5 * sinValue, center.getY() + ctxSize * 0.5 * cosValue);
-            Point2D textPoint        = new Point2D(center.getX() + ctxSize * 0.42 * sinValue, center.getY() + ctxSize * 0.42 * cosValue);
-
-            if (counter % 4 == 0) {
-                ctx.setStroke(majorTickMarkColor);
-                ctx.strokeLine(innerPoint.getX(), innerPoint.getY(), outerPoint.getX(), outerPoint.getY());
-                ctx.save();
-                ctx.translate(textPoint.getX(), textPoint.getY());
-
-                rotateContextForText(ctx, startAngle, angle, TickLabelOrientation.HORIZONTAL);
-                ctx.setTextAlign(TextAlignment.CENTER);
-                ctx.setTextBaseline(VPos.CENTER);
-                ctx.setFill(majorTickMarkColor);
-                ctx.fillText(counter == 0 ? "0" : Integer.toString((int) (counter / 4)), 0, 0);
-                ctx.restore();
-            } else if (counter % 1 == 0) {
-                ctx.setStroke(minorTickMarkColor);
-                ctx.strokeLine(innerMinutePoint.getX(), innerMinutePoint.getY(), outerPoint.getX(), outerPoint.getY());
+    /**
+     * Returns the headless model that is rendered by this control. The
+     * LocalTime and Duration properties are adapters on top of it.
+     * @return the range in seconds of the day
+     */
+    public TimeRange getTimeRange() { return range; }
+
+    /**
+     * Binds the range of this control bidirectional to the given range
+     * and releases the range that was bound before, null only releases
+     * the current binding. This is the way to reuse one control for many
+     * items in virtualized views like custom virtual flows or grids, the
+     * list and table cells use it in updateItem(). Rebinding to another
+     * range results in one update of the bar.
+     * @param RANGE the range to show and edit, null to release the binding
+     */
+    public void bindTimeRange(final TimeRange RANGE) {
+        if (boundRange == RANGE) { return; }
+        if (null != boundRange) {
+            range.startProperty().unbindBidirectional(boundRange.startProperty());
+            range.stopProperty().unbindBidirectional(boundRange.stopProperty());
+        }
+        boundRange = RANGE;
+        if (null != RANGE) {
+            // One update of the bar, the bindings will not change the values anymore
+            range.set(RANGE.getStart(), RANGE.getStop());
+            range.startProperty().bindBidirectional(RANGE.startProperty());
+            range.stopProperty().bindBidirectional(RANGE.stopProperty());
+        }
+    }
+
+    /**
+     * Returns the step in minutes the start and stop time will snap to
+     * while dragging the touch points. A value of 0 disables snapping.
+     * @return the snap step in minutes
+     */
+    public int getSnapStep() { return snapStep.get(); }
+    /**
+     * Defines the step in minutes (e.g. 1, 5 or 15) the start and stop time
+     * will snap to while dragging the touch points. Drag events that do not
+     * change the snapped time will be ignored. The step has to divide the
+     * 1440 minutes of a day, so that the steps line up over midnight. The
+     * default of 0 disables snapping.
+     * @param MINUTES the snap step in minutes
+     * @throws IllegalArgumentException if the step is negative or does not divide 1440
+     */
+    public void setSnapStep(final int MINUTES) { snapStep.set(MINUTES); }
+    public IntegerProperty snapStepProperty() { return snapStep; }
+
+    public boolean isTwentyFourHour() { return twentyFourHour.get(); }
+    /**
+     * Defines if the start and stop time will be shown as HH:mm or as
+     * h:mm a with the AM/PM markers of the locale.
+     * @param TWENTY_FOUR_HOUR true for HH:mm, false for h:mm a
+     */
+    public void setTwentyFourHour(final boolean TWENTY_FOUR_HOUR) { twentyFourHour.set(TWENTY_FOUR_HOUR); }
+    public BooleanProperty twentyFourHourProperty() { return twentyFourHour; }
+
+    public Locale getLocale() { return locale.get(); }
+    public void setLocale(final Locale LOCALE) { locale.set(LOCALE); }
+    public ObjectProperty<Locale> localeProperty() { return locale; }
+
+    public DaySchedule getSchedule() { return schedule.get(); }
+    /**
+     * Switches the control into the multi range mode. Each range of the
+     * schedule will be drawn as a segment on the ring and its start or
+     * stop can be dragged on the ring. The start and stop time of this
+     * control will follow the selected range. Setting null switches back
+     * to the single range mode.
+     * @param SCHEDULE the schedule to show or null
+     */
+    public void setSchedule(final DaySchedule SCHEDULE) { schedule.set(SCHEDULE); }
+    public ObjectProperty<DaySchedule> scheduleProperty() { return schedule; }
+
+    public boolean isLiveResize() { return liveResize.get(); }
+    /**
+     * In the live resize mode the content will only be scaled while the
+     * size of the control changes. It will be laid out and rasterized
+     * again 150ms after the last change or when the scale leaves the range
+     * from 0.8 to 1.25. The sizes of the canvas and the dial image are
+     * rounded up, so that nearby sizes share the same textures. This
+     * makes resizing dashboards with many controls much smoother.
+     * @param LIVE_RESIZE true to scale the content while resizing
+     */
+    public void setLiveResize(final boolean LIVE_RESIZE) { liveResize.set(LIVE_RESIZE); }
+    public BooleanProperty liveResizeProperty() { return liveResize; }
+
+    public ActivityHeatmap getActivityHeatmap() { return activityHeatmap.get(); }
+    /**
+     * Shows the events of the last 24 hours of the given heatmap on the
+     * ring, the more events a tick has the more opaque it will be drawn.
+     * The heatmap will be drained at most once per pulse and only if new
+     * events have been recorded or a new bucket starts, which removes
+     * the events that are older than 24 hours. One heatmap can be shown
+     * by many controls. Setting null removes the heatmap.
+     * @param HEATMAP the heatmap to show or null
+     */
+    public void setActivityHeatmap(final ActivityHeatmap HEATMAP) { activityHeatmap.set(HEATMAP); }
+    public ObjectProperty<ActivityHeatmap> activityHeatmapProperty() { return activityHeatmap; }
+
+    public RenderMode getRenderMode() { return renderMode; }
+
+    /**
+     * The committed values follow the start and stop time, but while the
+     * user drags a touch point they will only be updated when the mouse
+     * is released or when the value did not change for the commit delay.
+     * All three values are updated before their listeners are notified.
+     * Listeners that trigger expensive work should use these properties.
+     */
+    public LocalTime getCommittedStartTime() { return committedStartTime.get(); }
+    public ReadOnlyObjectProperty<LocalTime> committedStartTimeProperty() { return committedStartTime; }
+
+    public LocalTime getCommittedStopTime() { return committedStopTime.get(); }
+    public ReadOnlyObjectProperty<LocalTime> committedStopTimeProperty() { return committedStopTime; }
+
+    public Duration getCommittedDuration() { return committedDuration.get(); }
+    public ReadOnlyObjectProperty<Duration> committedDurationProperty() { return committedDuration; }
+
+    /**
+     * Returns the idle time after which a value will be committed during
+     * a drag, the default is 500ms.
+     */
+    public Duration getCommitDelay() { return commitDelay.get(); }
+    public void setCommitDelay(final Duration DELAY) { commitDelay.set(DELAY); }
+    public ObjectProperty<Duration> commitDelayProperty() { return commitDelay; }
+
+    /**
+     * Returns the conflating publisher of all range changes, including
+     * the intermediate values of a drag. Subscribers that request less
+     * values than are published only receive the latest value.
+     * @return the range publisher of this control
+     */
+    public RangePublisher getRangePublisher() {
+        if (null == rangePublisher) { rangePublisher = new RangePublisher(); }
+        return rangePublisher;
+    }
+
+    /**
+     * Returns the metrics of this control, they will only be recorded
+     * while TimeControlMetrics.isEnabled() returns true.
+     * @return the metrics of this control
+     */
+    public TimeControlMetrics getMetrics() {
+        if (null == metrics) { metrics = new TimeControlMetrics(); }
+        return metrics;
+    }
+
+
+    private void touchRotate(final double X, final double Y, final TouchPointType TYPE) {
+        int secondOfDay = snap(DialGeometry.secondOfDay(getTheta(X, Y)));
+        if (TouchPointType.START == TYPE) {
+            if (secondOfDay == range.getStart()) {
+                recordDrag(true);
+                return;
             }
+            recordDrag(false);
+            markInput();
+            if (RenderMode.NODES == renderMode) { startPointIcon.resize(iconSize, iconSize); }
+            range.setStart(secondOfDay);
+        } else {
+            if (secondOfDay == range.getStop()) {
+                recordDrag(true);
+                return;
+            }
+            recordDrag(false);
+            markInput();
+            if (RenderMode.NODES == renderMode) { stopPointIcon.resize(iconSize, iconSize); }
+            range.setStop(secondOfDay);
         }
     }
 
-    private void rotateContextForText(final GraphicsContext CTX, final double START_ANGLE, final double ANGLE, final TickLabelOrientation ORIENTATION) {
-        switch (ORIENTATION) {
-            case ORTHOGONAL:
-                if ((360 - START_ANGLE - ANGLE) % 360 > 90 && (360 - START_ANGLE - ANGLE) % 360 < 270) {
-                    CTX.rotate((180 - START_ANGLE - ANGLE) % 360);
-                } else {
-                    CTX.rotate((360 - START_ANGLE - ANGLE) % 360);
-                }
-                break;
-            case TANGENT:
-                if ((360 - START_ANGLE - ANGLE - 90) % 360 > 90 && (360 - START_ANGLE - ANGLE - 90) % 360 < 270) {
-                    CTX.rotate((90 - START_ANGLE - ANGLE) % 360);
-                } else {
-                    CTX.rotate((270 - START_ANGLE - ANGLE) % 360);
-                }
-                break;
-            case HORIZONTAL:
-            default:
-                break;
+    private void fireAdapters() {
+        if (adapterUpdateDepth > 0) { return; }
+        startTime.firePending();
+        stopTime.firePending();
+        duration.firePending();
+        committedStartTime.firePending();
+        committedStopTime.firePending();
+        committedDuration.firePending();
+    }
+
+    private void observeSchedule(final DaySchedule SCHEDULE) {
+        if (null != observedSchedule) { observedSchedule.removeListener(scheduleListener); }
+        observedSchedule = SCHEDULE;
+        scheduleIndex    = -1;
+        if (null != observedSchedule) { observedSchedule.addListener(scheduleListener); }
+        updateScheduleVisibility();
+        invalidatePaint();
+    }
+
+    // Merges the given seconds of the day (-1 keeps the pending value) into the slot, start + 1 in the upper and stop + 1 in the lower 32 bit
+    private void post(final int START, final int STOP) {
+        long current;
+        long next;
+        do {
+            current = postedRange.get();
+            long start = START < 0 ? current >>> 32 : START + 1;
+            long stop  = STOP < 0 ? current & 0xFFFFFFFFL : STOP + 1;
+            next = start << 32 | stop;
+        } while (!postedRange.compareAndSet(current, next));
+        if (postScheduled.compareAndSet(false, true)) { Platform.runLater(postRequest); }
+    }
+
+    private void applyPosted() {
+        postScheduled.set(false);
+        long posted = postedRange.getAndSet(NO_POST);
+        if (NO_POST == posted) { return; }
+        int start = (int) (posted >>> 32) - 1;
+        int stop  = (int) (posted & 0xFFFFFFFFL) - 1;
+        range.set(start < 0 ? range.getStart() : start, stop < 0 ? range.getStop() : stop);
+    }
+
+    private void observeHeatmap(final ActivityHeatmap HEATMAP) {
+        if (null != observedHeatmap) { observedHeatmap.removeDrainRequest(heatmapRequest); }
+        if (null != heatmapTimer) { heatmapTimer.stop(); }
+        observedHeatmap = HEATMAP;
+        if (null != observedHeatmap) { observedHeatmap.addDrainRequest(heatmapRequest); }
+        updateScheduleVisibility();
+        invalidatePaint();
+    }
+
+    // Drains the heatmap again when the next bucket starts, otherwise events older than 24 hours stay visible until new events arrive
+    private void scheduleHeatmapExpiry(final long NOW_MILLIS) {
+        if (0 == observedHeatmap.getMaxCount()) {
+            if (null != heatmapTimer) { heatmapTimer.stop(); }
+            return;
+        }
+        if (null == heatmapTimer) {
+            heatmapTimer = new PauseTransition();
+            heatmapTimer.setOnFinished(evt -> heatmapChanged());
         }
+        heatmapTimer.setDuration(javafx.util.Duration.millis(observedHeatmap.getMillisToNextBucket(NOW_MILLIS)));
+        heatmapTimer.playFromStart();
     }
 
-    private void touchRotate(final double X, final double Y, final TouchPointType TYPE) {
-        double theta           = getTheta(X, Y);
-        double angle           = -theta % 360;
-        double touchPointAngle = Math.toRadians(-theta - 90);
+    private void heatmapChanged() {
+        heatmapDirty = true;
+        requestLayout();
+    }
+
+    private void updateScheduleVisibility() {
+        if (RenderMode.CANVAS == renderMode || null == pane) { return; }
+        boolean singleRange = null == observedSchedule;
+        bar.setVisible(singleRange);
+        touchPointStart.setVisible(singleRange);
+        touchPointStop.setVisible(singleRange);
+        startPointIcon.setVisible(singleRange);
+        stopPointIcon.setVisible(singleRange);
+        ringCanvas.setVisible(!singleRange || null != observedHeatmap);
+    }
+
+    private void selectScheduleRange(final double X, final double Y) {
+        if (null == observedSchedule) { return; }
+        int secondOfDay = DialGeometry.secondOfDay(getTheta(X, Y));
+        scheduleIndex = observedSchedule.indexAt(secondOfDay);
+        if (scheduleIndex < 0) { return; }
+        int start = observedSchedule.getStart(scheduleIndex);
+        int stop  = observedSchedule.getStop(scheduleIndex);
+        scheduleEdge = distance(secondOfDay, start) <= distance(secondOfDay, stop) ? TouchPointType.START : TouchPointType.STOP;
+        range.set(start, stop);
+    }
+
+    private void dragScheduleRange(final double X, final double Y) {
+        if (null == observedSchedule || scheduleIndex < 0) { return; }
+        int secondOfDay = snap(DialGeometry.secondOfDay(getTheta(X, Y)));
+        int start       = observedSchedule.getStart(scheduleIndex);
+        int stop        = observedSchedule.getStop(scheduleIndex);
+        if (TouchPointType.START == scheduleEdge) {
+            if (secondOfDay == start) {
+                recordDrag(true);
+                return;
+            }
+            start = secondOfDay;
+        } else {
+            if (secondOfDay == stop) {
+                recordDrag(true);
+                return;
+            }
+            stop = secondOfDay;
+        }
+        try {
+            scheduleIndex = observedSchedule.set(scheduleIndex, start, stop);
+        } catch (IllegalArgumentException exception) {
+            // The range would be empty or overlap its neighbour, keep it where it is
+            recordDrag(true);
+            return;
+        }
+        recordDrag(false);
+        range.set(start, stop);
+    }
+
+    private void canvasPressed(final double X, final double Y) {
+        activeTouchPoint = null;
+        if (null != observedSchedule) {
+            selectScheduleRange(X, Y);
+            return;
+        }
+        // The stop point is drawn on top of the start point and wins if both are hit
+        if (isTouchPointHit(range.getStop(), X, Y)) {
+            activeTouchPoint = TouchPointType.STOP;
+        } else if (isTouchPointHit(range.getStart(), X, Y)) {
+            activeTouchPoint = TouchPointType.START;
+        }
+    }
+
+    private void canvasDragged(final double X, final double Y) {
+        if (null != observedSchedule) {
+            dragScheduleRange(X, Y);
+        } else if (null != activeTouchPoint) {
+            touchRotate(X, Y, activeTouchPoint);
+        }
+    }
+
+    private boolean isTouchPointHit(final int SECOND_OF_DAY, final double X, final double Y) {
+        double radius = width * 0.4425;
+        double deltaX = X - (width * 0.5 - radius * DialGeometry.handleSin(SECOND_OF_DAY));
+        double deltaY = Y - (height * 0.6039604 - radius * DialGeometry.handleCos(SECOND_OF_DAY));
+        double touchPointRadius = width * 0.0525;
+        return deltaX * deltaX + deltaY * deltaY <= touchPointRadius * touchPointRadius;
+    }
+
+    private void rangeChanged() {
+        if (null != rangePublisher) { rangePublisher.publish(new RangeChange(range.getStart(), range.getStop())); }
+        if (!dragging) {
+            commit();
+            return;
+        }
+        if (null == commitTimer) {
+            commitTimer = new PauseTransition(javafx.util.Duration.millis(getCommitDelay().toMillis()));
+            commitTimer.setOnFinished(evt -> commit());
+        }
+        commitTimer.playFromStart();
+    }
+
+    private boolean isTouching() { return NO_TOUCH != startTouchId || NO_TOUCH != stopTouchId; }
+
+    private void touchPressed(final int ID, final TouchPointType TYPE) {
         if (TouchPointType.START == TYPE) {
-            touchPointStart.setCenterX(bar.getCenterX() + bar.getRadiusX() * Math.sin(touchPointAngle));
-            touchPointStart.setCenterY(bar.getCenterY() + bar.getRadiusY() * Math.cos(touchPointAngle));
-            startPointIcon.resize(iconSize, iconSize);
-            startPointIcon.relocate(touchPointStart.getBoundsInParent().getMinX() + iconSize * 0.6, touchPointStart.getBoundsInParent().getMinY() + iconSize * 0.6);
-            setStartTime(LocalTime.ofSecondOfDay((long) Math.abs(angle / ANGLE_STEP)).plusSeconds(21600));
+            startTouchId = ID;
         } else {
-            touchPointStop.setCenterX(bar.getCenterX() + bar.getRadiusX() * Math.sin(touchPointAngle));
-            touchPointStop.setCenterY(bar.getCenterY() + bar.getRadiusY() * Math.cos(touchPointAngle));
-            stopPointIcon.resize(iconSize, iconSize);
-            stopPointIcon.relocate(touchPointStop.getBoundsInParent().getMinX() + iconSize * 0.6, touchPointStop.getBoundsInParent().getMinY() + iconSize * 0.6);
-            setStopTime(LocalTime.ofSecondOfDay((long) Math.abs(angle / ANGLE_STEP)).plusSeconds(21600));
+            stopTouchId = ID;
+        }
+        dragging = true;
+    }
+
+    private void touchMovedOnNode(final TouchPoint TOUCH_POINT) {
+        Point2D point = pane.sceneToLocal(TOUCH_POINT.getSceneX(), TOUCH_POINT.getSceneY());
+        touchMoved(TOUCH_POINT, point.getX(), point.getY());
+    }
+
+    private void touchMoved(final TouchPoint TOUCH_POINT, final double X, final double Y) {
+        int id = TOUCH_POINT.getId();
+        if (id == startTouchId) {
+            touchRotate(X, Y, TouchPointType.START);
+        } else if (id == stopTouchId) {
+            touchRotate(X, Y, TouchPointType.STOP);
+        }
+    }
+
+    private void touchReleased(final int ID) {
+        if (ID == startTouchId) {
+            startTouchId = NO_TOUCH;
+        } else if (ID == stopTouchId) {
+            stopTouchId = NO_TOUCH;
+        } else {
+            return;
+        }
+        if (!isTouching()) { dragReleased(); }
+    }
+
+    // Remembers the first input since the last pulse, the latency will be recorded in the next layout pass
+    private void markInput() {
+        if (0 != inputNanos || !TimeControlMetrics.isEnabled()) { return; }
+        inputNanos = System.nanoTime();
+        requestLayout();
+    }
+
+    // Drags the stop touch point to the given second of the day like a mouse drag, used to script drags in the scene benchmark
+    void dragStop(final int SECOND_OF_DAY) {
+        dragging = true;
+        double radius = width * 0.4425;
+        touchRotate(width * 0.5 - radius * DialGeometry.handleSin(SECOND_OF_DAY), height * 0.6039604 - radius * DialGeometry.handleCos(SECOND_OF_DAY), TouchPointType.STOP);
+    }
+
+    void releaseDrag() { dragReleased(); }
+
+    // Center of the start or stop touch point in the coordinates of the pane, null in the canvas mode, used by the cell reuse check
+    Point2D touchPointCenter(final boolean START) {
+        if (RenderMode.CANVAS == renderMode || null == pane) { return null; }
+        Circle touchPoint = START ? touchPointStart : touchPointStop;
+        return touchPoint.localToParent(touchPoint.getCenterX(), touchPoint.getCenterY());
+    }
+
+    private void dragReleased() {
+        dragging = false;
+        commit();
+    }
+
+    private void commit() {
+        if (null != commitTimer) { commitTimer.stop(); }
+        adapterUpdateDepth++;
+        try {
+            if (!getStartTime().equals(getCommittedStartTime())) { committedStartTime.set(getStartTime()); }
+            if (!getStopTime().equals(getCommittedStopTime())) { committedStopTime.set(getStopTime()); }
+            if (!getDuration().equals(getCommittedDuration())) { committedDuration.set(getDuration()); }
+        } finally {
+            adapterUpdateDepth--;
         }
+        fireAdapters();
+    }
+
+    private void recordDrag(final boolean COALESCED) {
+        if (TimeControlMetrics.isEnabled()) { getMetrics().recordDrag(COALESCED); }
+    }
+
+    private static int distance(final int SECOND_A, final int SECOND_B) {
+        int distance = Math.abs(SECOND_A - SECOND_B);
+        return Math.min(distance, DialGeometry.SECONDS_PER_DAY - distance);
     }
 
-    private double getTheta(double x, double y) {
-        double deltaX = x - (width * 0.5);
-        double deltaY = y - (height * 0.6039604);
-        double radius = Math.sqrt((deltaX * deltaX) + (deltaY * deltaY));
-        double nx     = deltaX / radius;
-        double ny     = deltaY / radius;
-        double theta  = Math.atan2(ny, nx);
-        return Double.compare(theta, 0.0) >= 0 ? Math.toDegrees(theta) : Math.toDegrees((theta)) + 360.0;
+    private int snap(final int SECOND_OF_DAY) {
+        int step = getSnapStep() * 60;
+        if (step <= 0) { return SECOND_OF_DAY; }
+        return ((SECOND_OF_DAY + step / 2) / step * step) % DialGeometry.SECONDS_PER_DAY;
     }
 
+    private void placeTouchPoint(final Circle TOUCH_POINT, final Region ICON, final int SECOND_OF_DAY) {
+        TOUCH_POINT.setCenterX(bar.getCenterX() + bar.getRadiusX() * DialGeometry.handleSin(SECOND_OF_DAY));
+        TOUCH_POINT.setCenterY(bar.getCenterY() + bar.getRadiusY() * DialGeometry.handleCos(SECOND_OF_DAY));
+        // touchRotate turns the touch points by 180 degrees around its pivot
+        double minX = 2 * touchRotate.getPivotX() - TOUCH_POINT.getCenterX() - TOUCH_POINT.getRadius();
+        double minY = 2 * touchRotate.getPivotY() - TOUCH_POINT.getCenterY() - TOUCH_POINT.getRadius();
+        ICON.relocate(minX + iconSize * 0.6, minY + iconSize * 0.6);
+    }
+
+    private double getTheta(double x, double y) { return DialGeometry.theta(x - (width * 0.5), y - (height * 0.6039604)); }
+
     private void updateBar() {
-        int stopPointSeconds  = getStopTime().toSecondOfDay();
-        int startPointSeconds = getStartTime().toSecondOfDay() > stopPointSeconds ? getStartTime().toSecondOfDay() - 86400 : getStartTime().toSecondOfDay();
-        int deltaSeconds      = Math.abs(stopPointSeconds - startPointSeconds);
-        duration.set(Duration.ofSeconds(deltaSeconds));
+        if (RenderMode.CANVAS == renderMode) {
+            invalidatePaint();
+            return;
+        }
+        if (null == pane) { return; }
+        boolean measure           = TimeControlMetrics.isEnabled();
+        long    start             = measure ? System.nanoTime() : 0;
+        int     startPointSeconds = TimeRange.normalizedStart(range.getStart(), range.getStop());
+        int     deltaSeconds      = range.getDuration();
 
         bar.setStartAngle(-startPointSeconds * ANGLE_STEP);
         bar.setLength(-deltaSeconds * ANGLE_STEP);
 
-        startTimeText.setText(TIME_FORMAT.format(getStartTime()));
-        stopTimeText.setText(TIME_FORMAT.format(getStopTime()));
+        // The range might have been set from outside, e.g. by binding a reused cell to the range of another item
+        placeTouchPoint(touchPointStart, startPointIcon, range.getStart());
+        placeTouchPoint(touchPointStop, stopPointIcon, range.getStop());
 
-        hourText.setText(HOUR_FORMAT.format((getStopTime().minusSeconds(startPointSeconds))));
-        minuteText.setText(MINUTE_FORMAT.format((getStopTime().minusSeconds(startPointSeconds))));
-        durationBox.setLayoutX((width - durationBox.getLayoutBounds().getWidth()) * 0.5);
+        startTimeText.setText(timeLabels[range.getStart() / 60]);
+        stopTimeText.setText(timeLabels[range.getStop() / 60]);
+
+        hourText.setText(TimeLabels.twoDigits(deltaSeconds / 3600));
+        minuteText.setText(TimeLabels.twoDigits(deltaSeconds % 3600 / 60));
+        placeStopTime();
+        placeDuration();
+        if (measure) { getMetrics().record(Operation.UPDATE_BAR, start); }
+    }
+
+
+    private void placeStopTime() { stopTimeText.setX((width - GlyphMetrics.of(stopTimeText.getFont()).width(stopTimeText.getText())) - width * 0.05); }
+
+    // Centers the duration texts on one baseline using the cached advance widths, the texts will not be measured
+    private void placeDuration() {
+        GlyphMetrics durationMetrics = GlyphMetrics.of(hourText.getFont());
+        GlyphMetrics unitMetrics     = GlyphMetrics.of(hourUnitText.getFont());
+        double       gap             = width * 0.0125;
+        double       hoursWidth      = durationMetrics.width(hourText.getText());
+        double       hWidth          = unitMetrics.width(hourUnitText.getText());
+        double       minutesWidth    = durationMetrics.width(minuteText.getText());
+        double       mWidth          = unitMetrics.width(minuteUnitText.getText());
+        double       x               = (width - (hoursWidth + hWidth + minutesWidth + mWidth + 5 * gap)) * 0.5;
+        double       baseline        = height * 0.54 + durationMetrics.getAscent();
+        hourText.setX(x);
+        x += hoursWidth + gap;
+        hourUnitText.setX(x);
+        x += hWidth + 3 * gap;
+        minuteText.setX(x);
+        x += minutesWidth + gap;
+        minuteUnitText.setX(x);
+        hourText.setY(baseline);
+        hourUnitText.setY(baseline);
+        minuteText.setY(baseline);
+        minuteUnitText.setY(baseline);
+    }
+
+    private void updateTimeLabels() {
+        timeLabels = TimeLabels.timeTable(null == getLocale() ? Locale.getDefault() : getLocale(), isTwentyFourHour());
+        updateBar();
+        invalidateLayout();
     }
 
 
     // ******************** Resizing ******************************************
+    // The dials and fonts that have been created with the fallback font will be replaced
+    private void fontsLoaded() {
+        DialCache.evictAll();
+        dialImageColor = null;
+        invalidateLayout();
+    }
+
+    private void invalidateLayout() {
+        layoutDirty = true;
+        requestLayout();
+    }
+
+    private void invalidatePaint() {
+        paintDirty = true;
+        requestLayout();
+    }
+
+    // The tick marks use the text color, the texts will be repainted too
+    private void invalidateDial() {
+        dialDirty  = true;
+        paintDirty = true;
+        requestLayout();
+    }
+
     private void resize() {
         width  = getWidth() - getInsets().getLeft() - getInsets().getRight();
         height = getHeight() - getInsets().getTop() - getInsets().getBottom();
@@ -428,17 +1169,20 @@ public class TimeControl extends Region {
             pane.setMaxSize(width, height);
             pane.setPrefSize(width, height);
             pane.relocate((getWidth() - width) * 0.5, (getHeight() - height) * 0.5);
-
-            if (Double.compare(pane.getLayoutBounds().getWidth(), 0) == 0) {
-                mouseScaleX = 1.0;
-                mouseScaleY = 1.0;
-            } else {
-                mouseScaleX = pane.getLayoutBounds().getWidth() / getWidth();
-                mouseScaleY = pane.getLayoutBounds().getHeight() / getHeight();
-            }
+            paneScale.setX(1);
+            paneScale.setY(1);
 
             iconSize = width * 0.04725;
 
+            if (RenderMode.CANVAS == renderMode) {
+                // Nearby sizes share the same canvas texture in the live resize mode
+                canvas.setWidth(isLiveResize() ? bucket(width, CANVAS_SIZE_STEP) : width);
+                canvas.setHeight(isLiveResize() ? bucket(height, CANVAS_SIZE_STEP) : height);
+                dialDirty  = true;
+                paintDirty = true;
+                return;
+            }
+
             startIcon.setPrefSize(iconSize, iconSize);
             startIcon.relocate(0, width * 0.022);
 
@@ -450,36 +1194,23 @@ public class TimeControl extends Region {
             startTimeText.setX(width * 0.05);
             startTimeText.setY(width * 0.0825);
 
+            double stopTextWidth = GlyphMetrics.of(Fonts.robotoRegular(width * 0.05)).width("Stop");
             stopText.setFont(Fonts.robotoRegular(width * 0.05));
-            stopText.setX(width - stopText.getLayoutBounds().getWidth());
+            stopText.setX(width - stopTextWidth);
             stopText.setY(width * 0.0125);
 
             stopIcon.setPrefSize(iconSize, iconSize);
-            stopIcon.relocate((width - stopText.getLayoutBounds().getWidth()) - width * 0.065, width * 0.022);
+            stopIcon.relocate((width - stopTextWidth) - width * 0.065, width * 0.022);
 
             stopTimeText.setFont(Fonts.robotoRegular(width * 0.12));
-            stopTimeText.setX((width - stopTimeText.getLayoutBounds().getWidth()) - width * 0.05);
             stopTimeText.setY(width * 0.0825);
+            placeStopTime();
 
             hourText.setFont(Fonts.robotoRegular(width * 0.11));
             hourUnitText.setFont(Fonts.robotoRegular(width * 0.05));
             minuteText.setFont(Fonts.robotoRegular(width * 0.11));
             minuteUnitText.setFont(Fonts.robotoRegular(width * 0.05));
-
-            if (Double.compare(durationBox.getLayoutBounds().getWidth(), 0) == 0) {
-                durationBox.setLayoutX(width * 0.306);
-                durationBox.setLayoutY(height * 0.54);
-            } else {
-                durationBox.relocate((width - durationBox.getLayoutBounds().getWidth()) * 0.5, height * 0.54);
-            }
-            durationBox.setSpacing(width * 0.0125);
-            HBox.setMargin(hourUnitText, new Insets(0, width * 0.0125, 0, 0));
-            HBox.setMargin(minuteText, new Insets(0, 0, 0, width * 0.0125));
-
-            canvas.setWidth(width * 0.75);
-            canvas.setHeight(width * 0.75);
-            drawTickmarks();
-            canvas.relocate((width - canvas.getWidth()) * 0.5, height * 0.30693069);
+            placeDuration();
 
             barBackground.setStrokeWidth(width * 0.115);
             barBackground.setCenterX(width * 0.5);
@@ -505,27 +1236,87 @@ public class TimeControl extends Region {
             touchRotate.setPivotX(width * 0.5);
             touchRotate.setPivotY(height * 0.6039604);
 
-            touchPointStart.setCenterX(bar.getCenterX() + bar.getRadiusX() * Math.sin(Math.toRadians(-getStartTime().toSecondOfDay() * ANGLE_STEP)));
-            touchPointStart.setCenterY(bar.getCenterY() + bar.getRadiusY() * Math.cos(Math.toRadians(-getStartTime().toSecondOfDay() * ANGLE_STEP)));
             touchPointStart.setRadius(width * 0.0525);
-
-            touchPointStop.setCenterX(bar.getCenterX() + bar.getRadiusX() * Math.sin(Math.toRadians(-getStopTime().toSecondOfDay() * ANGLE_STEP)));
-            touchPointStop.setCenterY(bar.getCenterY() + bar.getRadiusY() * Math.cos(Math.toRadians(-getStopTime().toSecondOfDay() * ANGLE_STEP)));
             touchPointStop.setRadius(width * 0.0525);
 
             startPointIcon.setPrefSize(iconSize, iconSize);
-            startPointIcon.relocate(touchPointStart.getBoundsInParent().getMinX() + iconSize * 0.6, touchPointStart.getBoundsInParent().getMinY() + iconSize * 0.6);
+            placeTouchPoint(touchPointStart, startPointIcon, range.getStart());
 
             stopPointIcon.setPrefSize(iconSize, iconSize);
-            stopPointIcon.relocate(touchPointStop.getBoundsInParent().getMinX() + iconSize * 0.6, touchPointStop.getBoundsInParent().getMinY() + iconSize * 0.6);
+            placeTouchPoint(touchPointStop, stopPointIcon, range.getStop());
 
-            redraw();
+            dialDirty  = true;
+            paintDirty = true;
         }
     }
 
+    /**
+     * Scales the content that has been laid out for the last size to the
+     * current size in the live resize mode. Returns false if the content
+     * has to be laid out and rasterized again, i.e. if the live resize
+     * mode is off, if the size did not change, if the resizing has settled
+     * or if the scale exceeds the threshold.
+     */
+    private boolean scaleToSize() {
+        if (!isLiveResize() || resizeSettled || width <= 0 || height <= 0) {
+            resizeSettled = false;
+            if (null != settleTimer) { settleTimer.stop(); }
+            return false;
+        }
+        double contentWidth  = Math.min(getWidth() - getInsets().getLeft() - getInsets().getRight(), (getHeight() - getInsets().getTop() - getInsets().getBottom()) / ASPECT_RATIO);
+        double contentHeight = contentWidth * ASPECT_RATIO;
+        double scale         = contentWidth / width;
+        // Invalidations without a change of the size need a real layout
+        if (Double.compare(scale, 1) == 0 || contentWidth <= 0 || scale > MAX_LIVE_SCALE || scale < 1 / MAX_LIVE_SCALE) {
+            if (null != settleTimer) { settleTimer.stop(); }
+            return false;
+        }
+        paneScale.setX(scale);
+        paneScale.setY(scale);
+        pane.relocate((getWidth() - contentWidth) * 0.5, (getHeight() - contentHeight) * 0.5);
+        if (null == settleTimer) {
+            settleTimer = new PauseTransition(SETTLE_DELAY);
+            settleTimer.setOnFinished(evt -> {
+                resizeSettled = true;
+                invalidateLayout();
+            });
+        }
+        settleTimer.playFromStart();
+        return true;
+    }
+
+    // Rounds the size up to the next multiple of the step
+    private static double bucket(final double SIZE, final int STEP) { return Math.ceil(SIZE / STEP) * STEP; }
+
+    private void drawDial() {
+        if (width <= 0 || height <= 0) { return; }
+        double dialSize  = width * 0.75;
+        int    pixelSize = (int) Math.max(1, isLiveResize() ? bucket(dialSize, DIAL_SIZE_STEP) : Math.round(dialSize));
+        Color  dialColor = getTextColor();
+        if (pixelSize != dialImageSize || !dialColor.equals(dialImageColor)) {
+            dialImage      = DialCache.getDial(pixelSize, dialColor);
+            dialImageSize  = pixelSize;
+            dialImageColor = dialColor;
+        }
+        if (RenderMode.CANVAS == renderMode) {
+            paintDirty = true;
+            return;
+        }
+        dial.setImage(dialImage);
+        dial.setFitWidth(dialSize);
+        dial.setFitHeight(dialSize);
+        dial.relocate((width - dialSize) * 0.5, height * 0.30693069);
+    }
+
     private void redraw() {
-        startIcon.setBackground(new Background(new BackgroundFill(getBarColor(), CornerRadii.EMPTY, Insets.EMPTY)));
-        stopIcon.setBackground(new Background(new BackgroundFill(getBarColor(), CornerRadii.EMPTY, Insets.EMPTY)));
+        if (RenderMode.CANVAS == renderMode) {
+            pane.setBackground(PaintCache.background(backgroundPaint));
+            pane.setBorder(PaintCache.border(borderPaint, borderWidth / PREFERRED_WIDTH * size));
+            drawCanvas();
+            return;
+        }
+        startIcon.setBackground(PaintCache.background(getBarColor()));
+        stopIcon.setBackground(PaintCache.background(getBarColor()));
 
         startText.setFill(getTextColor());
         startTimeText.setFill(getTextColor());
@@ -544,10 +1335,212 @@ public class TimeControl extends Region {
         touchPointStart.setFill(getBarBackgroundColor());
         touchPointStop.setFill(getBarBackgroundColor());
 
-        startPointIcon.setBackground(new Background(new BackgroundFill(getBarColor(), CornerRadii.EMPTY, Insets.EMPTY)));
-        stopPointIcon.setBackground(new Background(new BackgroundFill(getBarColor(), CornerRadii.EMPTY, Insets.EMPTY)));
+        startPointIcon.setBackground(PaintCache.background(getBarColor()));
+        stopPointIcon.setBackground(PaintCache.background(getBarColor()));
+
+        pane.setBackground(PaintCache.background(backgroundPaint));
+        pane.setBorder(PaintCache.border(borderPaint, borderWidth / PREFERRED_WIDTH * size));
+
+        drawRing();
+    }
+
+    private void drawRing() {
+        if (null == observedSchedule && null == observedHeatmap) {
+            ringCanvas.setWidth(0);
+            ringCanvas.setHeight(0);
+            return;
+        }
+        double canvasSize = isLiveResize() ? bucket(width, CANVAS_SIZE_STEP) : width;
+        double center     = width * 0.5;
+        double radius     = barBackground.getRadiusX();
+        ringCanvas.setWidth(canvasSize);
+        ringCanvas.setHeight(canvasSize);
+        ringCanvas.relocate(0, barBackground.getCenterY() - center);
+
+        GraphicsContext ringCtx = ringCanvas.getGraphicsContext2D();
+        ringCtx.clearRect(0, 0, canvasSize, canvasSize);
+        if (null != observedHeatmap) { strokeHeatmap(ringCtx, center, center, radius, barBackground.getStrokeWidth()); }
+        if (null != observedSchedule) { strokeSchedule(ringCtx, center, center, radius, barBackground.getStrokeWidth()); }
+    }
+
+    private void strokeHeatmap(final GraphicsContext CTX, final double CENTER_X, final double CENTER_Y, final double RADIUS, final double LINE_WIDTH) {
+        int maxCount = observedHeatmap.getMaxCount();
+        if (0 == maxCount) { return; }
+        double extent = 360.0 / ActivityHeatmap.BUCKETS;
+        CTX.setLineCap(StrokeLineCap.BUTT);
+        CTX.setLineWidth(LINE_WIDTH);
+        CTX.setStroke(getBarColor());
+        for (int i = 0 ; i < ActivityHeatmap.BUCKETS ; i++) {
+            int count = observedHeatmap.getCount(i);
+            if (0 == count) { continue; }
+            CTX.setGlobalAlpha(HEATMAP_ALPHA * count / maxCount);
+            CTX.strokeArc(CENTER_X - RADIUS, CENTER_Y - RADIUS, RADIUS * 2, RADIUS * 2, 90 - i * extent, -extent, ArcType.OPEN);
+        }
+        CTX.setGlobalAlpha(1);
+    }
+
+    private void strokeSchedule(final GraphicsContext CTX, final double CENTER_X, final double CENTER_Y, final double RADIUS, final double LINE_WIDTH) {
+        CTX.setLineCap(StrokeLineCap.BUTT);
+        CTX.setLineWidth(LINE_WIDTH);
+        CTX.setStroke(getBarColor());
+        for (int i = 0 ; i < observedSchedule.size() ; i++) {
+            int start = observedSchedule.getStart(i);
+            int stop  = observedSchedule.getStop(i);
+            CTX.strokeArc(CENTER_X - RADIUS, CENTER_Y - RADIUS, RADIUS * 2, RADIUS * 2, 90 - start * ANGLE_STEP, -TimeRange.duration(start, stop) * ANGLE_STEP, ArcType.OPEN);
+        }
+    }
+
+
+    // ******************** Canvas rendering **********************************
+    private void drawCanvas() {
+        ctx.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (width <= 0 || height <= 0) { return; }
+
+        Color textColor          = getTextColor();
+        Color barColor           = getBarColor();
+        Color barBackgroundColor = getBarBackgroundColor();
+        Font  smallFont          = Fonts.robotoRegular(width * 0.05);
+        Font  timeFont           = Fonts.robotoRegular(width * 0.12);
+        Font  durationFont       = Fonts.robotoRegular(width * 0.11);
+
+        // Start and stop
+        ctx.setFill(barColor);
+        fillStartIcon(0, width * 0.022);
+        fillStopIcon((width - textWidth("Stop", smallFont)) - width * 0.065, width * 0.022);
+
+        ctx.setFill(textColor);
+        ctx.setTextBaseline(VPos.TOP);
+        ctx.setTextAlign(TextAlignment.LEFT);
+        ctx.setFont(smallFont);
+        ctx.fillText("Start", width * 0.065, width * 0.0125);
+        ctx.setFont(timeFont);
+        ctx.fillText(timeLabels[range.getStart() / 60], width * 0.05, width * 0.0825);
+        ctx.setTextAlign(TextAlignment.RIGHT);
+        ctx.setFont(smallFont);
+        ctx.fillText("Stop", width, width * 0.0125);
+        ctx.setFont(timeFont);
+        ctx.fillText(timeLabels[range.getStop() / 60], width - width * 0.05, width * 0.0825);
+
+        // Duration, same placement as the duration texts in NODES mode
+        int    deltaSeconds = range.getDuration();
+        String hours        = TimeLabels.twoDigits(deltaSeconds / 3600);
+        String minutes      = TimeLabels.twoDigits(deltaSeconds % 3600 / 60);
+        double gap          = width * 0.0125;
+        double hoursWidth   = textWidth(hours, durationFont);
+        double hWidth       = textWidth("h", smallFont);
+        double minutesWidth = textWidth(minutes, durationFont);
+        double mWidth       = textWidth("m", smallFont);
+        double x            = (width - (hoursWidth + hWidth + minutesWidth + mWidth + 5 * gap)) * 0.5;
+        double baseline     = height * 0.54 + textAscent(durationFont);
+        ctx.setTextBaseline(VPos.BASELINE);
+        ctx.setTextAlign(TextAlignment.LEFT);
+        ctx.setFont(durationFont);
+        ctx.fillText(hours, x, baseline);
+        x += hoursWidth + gap;
+        ctx.setFont(smallFont);
+        ctx.fillText("h", x, baseline);
+        x += hWidth + 3 * gap;
+        ctx.setFont(durationFont);
+        ctx.fillText(minutes, x, baseline);
+        x += minutesWidth + gap;
+        ctx.setFont(smallFont);
+        ctx.fillText("m", x, baseline);
+
+        // Dial
+        double dialSize = width * 0.75;
+        if (null != dialImage) { ctx.drawImage(dialImage, (width - dialSize) * 0.5, height * 0.30693069, dialSize, dialSize); }
+
+        // Ring
+        double centerX = width * 0.5;
+        double centerY = height * 0.6039604;
+        double radius  = width * 0.4425;
+        ctx.setLineCap(StrokeLineCap.BUTT);
+        ctx.setLineWidth(width * 0.115);
+        ctx.setStroke(barBackgroundColor);
+        ctx.strokeOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+        if (null != observedHeatmap) { strokeHeatmap(ctx, centerX, centerY, radius, width * 0.115); }
+        if (null != observedSchedule) {
+            strokeSchedule(ctx, centerX, centerY, radius, width * 0.115);
+            return;
+        }
+        if (deltaSeconds > 0) {
+            ctx.setLineCap(StrokeLineCap.ROUND);
+            ctx.setStroke(barColor);
+            ctx.strokeArc(centerX - radius, centerY - radius, radius * 2, radius * 2, 90 - TimeRange.normalizedStart(range.getStart(), range.getStop()) * ANGLE_STEP, -deltaSeconds * ANGLE_STEP, ArcType.OPEN);
+        }
+
+        // Touch points
+        fillTouchPoint(range.getStart(), TouchPointType.START, centerX, centerY, radius, barColor, barBackgroundColor);
+        fillTouchPoint(range.getStop(), TouchPointType.STOP, centerX, centerY, radius, barColor, barBackgroundColor);
+    }
+
+    private void fillTouchPoint(final int SECOND_OF_DAY, final TouchPointType TYPE, final double CENTER_X, final double CENTER_Y, final double RADIUS, final Color ICON_COLOR, final Color COLOR) {
+        double x                = CENTER_X - RADIUS * DialGeometry.handleSin(SECOND_OF_DAY);
+        double y                = CENTER_Y - RADIUS * DialGeometry.handleCos(SECOND_OF_DAY);
+        double touchPointRadius = width * 0.0525;
+        ctx.setFill(COLOR);
+        ctx.fillOval(x - touchPointRadius, y - touchPointRadius, touchPointRadius * 2, touchPointRadius * 2);
+        ctx.setFill(ICON_COLOR);
+        if (TouchPointType.START == TYPE) {
+            fillStartIcon(x - touchPointRadius + iconSize * 0.6, y - touchPointRadius + iconSize * 0.6);
+        } else {
+            fillStopIcon(x - touchPointRadius + iconSize * 0.6, y - touchPointRadius + iconSize * 0.6);
+        }
+    }
+
+    // Same shapes as .start-icon and .stop-icon in timecontrol.css
+    private void fillStartIcon(final double X, final double Y) {
+        ctx.beginPath();
+        ctx.moveTo(X, Y);
+        ctx.lineTo(X + iconSize, Y + iconSize * 0.5);
+        ctx.lineTo(X, Y + iconSize);
+        ctx.closePath();
+        ctx.fill();
+    }
+
+    private void fillStopIcon(final double X, final double Y) { ctx.fillRect(X, Y, iconSize, iconSize); }
+
+    private static double textWidth(final String TEXT, final Font FONT) { return GlyphMetrics.of(FONT).width(TEXT); }
+
+    private static double textAscent(final Font FONT) { return GlyphMetrics.of(FONT).getAscent(); }
+
+
+    // ******************** Inner Classes *************************************
+    // LocalTime and Duration view of a (committed) value of the range, notifications are collected while adapterUpdateDepth > 0
+    private final class AdapterProperty<T> extends ObjectPropertyBase<T> {
+        private final String      name;
+        private final Consumer<T> toRange;
+        private       T           firedValue;
+        private       boolean     pending;
+
+        AdapterProperty(final T VALUE, final String NAME, final Consumer<T> TO_RANGE) {
+            super(VALUE);
+            name       = NAME;
+            toRange    = TO_RANGE;
+            firedValue = VALUE;
+        }
+
+        @Override protected void invalidated() { if (null != toRange) { toRange.accept(get()); } }
+
+        @Override protected void fireValueChangedEvent() {
+            if (adapterUpdateDepth > 0) {
+                pending = true;
+                return;
+            }
+            firedValue = get();
+            super.fireValueChangedEvent();
+        }
+
+        // Fires if the value differs from the last value that has been fired
+        void firePending() {
+            if (!pending) { return; }
+            pending = false;
+            if (Objects.equals(get(), firedValue)) { return; }
+            firedValue = get();
+            super.fireValueChangedEvent();
+        }
 
-        pane.setBackground(new Background(new BackgroundFill(backgroundPaint, CornerRadii.EMPTY, Insets.EMPTY)));
-        pane.setBorder(new Border(new BorderStroke(borderPaint, BorderStrokeStyle.SOLID, CornerRadii.EMPTY, new BorderWidths(borderWidth / PREFERRED_WIDTH * size))));
+        @Override public Object getBean() { return TimeControl.this; }
+        @Override public String getName() { return name; }
     }
 }
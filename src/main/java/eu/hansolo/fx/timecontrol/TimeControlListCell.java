@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import eu.hansolo.fx.timecontrol.TimeControl.RenderMode;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.util.Callback;
+
+
+/**
+ * ListCell that shows the TimeRange of an item with a TimeControl. The
+ * ListView only creates as many cells as rows are visible and reuses
+ * them while scrolling, so every cell creates its control once and an
+ * update just binds the control to the range of the next item. No
+ * nodes will be created or removed while scrolling and the dial image
+ * is shared by all controls of the same size.
+ */
+public class TimeControlListCell<T> extends ListCell<T> {
+    public  static final double                 DEFAULT_SIZE = 200;
+    private        final Callback<T, TimeRange> rangeExtractor;
+    private        final TimeControl            timeControl;
+
+
+    // ******************** Constructors **************************************
+    public TimeControlListCell(final Callback<T, TimeRange> RANGE_EXTRACTOR) {
+        this(RANGE_EXTRACTOR, RenderMode.CANVAS, DEFAULT_SIZE);
+    }
+    /**
+     * @param RANGE_EXTRACTOR returns the range of an item that will be shown in the cell
+     * @param RENDER_MODE     render mode of the control, RenderMode.CANVAS needs the least nodes
+     * @param SIZE            preferred width of the control, the height follows from the aspect ratio
+     */
+    public TimeControlListCell(final Callback<T, TimeRange> RANGE_EXTRACTOR, final RenderMode RENDER_MODE, final double SIZE) {
+        if (null == RANGE_EXTRACTOR) { throw new IllegalArgumentException("RANGE_EXTRACTOR must not be null"); }
+        rangeExtractor = RANGE_EXTRACTOR;
+        timeControl    = new TimeControl(RENDER_MODE);
+        timeControl.setPrefSize(SIZE, SIZE * TimeControl.ASPECT_RATIO);
+        getStyleClass().add("time-control-list-cell");
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override protected void updateItem(final T ITEM, final boolean EMPTY) {
+        super.updateItem(ITEM, EMPTY);
+        TimeRange range = EMPTY || null == ITEM ? null : rangeExtractor.call(ITEM);
+        timeControl.bindTimeRange(range);
+        setText(null);
+        setGraphic(null == range ? null : timeControl);
+    }
+
+    /**
+     * Returns the control of this cell, e.g. to set its colors. The
+     * control will be reused for all items that are shown in this cell.
+     */
+    public TimeControl getTimeControl() { return timeControl; }
+
+    public static <T> Callback<ListView<T>, ListCell<T>> forListView(final Callback<T, TimeRange> RANGE_EXTRACTOR) {
+        return forListView(RANGE_EXTRACTOR, RenderMode.CANVAS, DEFAULT_SIZE);
+    }
+    public static <T> Callback<ListView<T>, ListCell<T>> forListView(final Callback<T, TimeRange> RANGE_EXTRACTOR, final RenderMode RENDER_MODE, final double SIZE) {
+        return listView -> new TimeControlListCell<>(RANGE_EXTRACTOR, RENDER_MODE, SIZE);
+    }
+}
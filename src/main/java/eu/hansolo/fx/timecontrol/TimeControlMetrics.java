@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Opt in counters and latency histograms of the expensive paths of a
+ * TimeControl. Every control records into its own metrics and into
+ * the global metrics, the tick marks are shared by all controls and
+ * are only recorded globally. The histograms use one bucket per power
+ * of two nanoseconds. Recording is disabled by default and costs one
+ * volatile read per call then, it can be enabled with setEnabled(),
+ * the system property eu.hansolo.fx.timecontrol.metrics=true or the
+ * MXBean that will be registered by registerMBean().
+ */
+public final class TimeControlMetrics {
+    /**
+     * INPUT_LATENCY is the time from the first mouse or touch event that
+     * moved a touch point to the layout pass of the pulse that shows it.
+     */
+    public enum Operation { RESIZE, REDRAW, DRAW_TICKMARKS, UPDATE_BAR, INPUT_LATENCY }
+    public  static final String             OBJECT_NAME = "eu.hansolo.fx.timecontrol:type=TimeControlMetrics";
+    private static final int                BUCKETS     = 64;
+    private static final TimeControlMetrics GLOBAL      = new TimeControlMetrics(null);
+    private static volatile boolean         enabled     = Boolean.getBoolean("eu.hansolo.fx.timecontrol.metrics");
+    private final        TimeControlMetrics parent;
+    private final        Timer[]            timers;
+    private final        LongAdder          dragsReceived;
+    private final        LongAdder          dragsCoalesced;
+
+
+    // ******************** Constructors **************************************
+    TimeControlMetrics() {
+        this(GLOBAL);
+    }
+    private TimeControlMetrics(final TimeControlMetrics PARENT) {
+        parent         = PARENT;
+        timers         = new Timer[Operation.values().length];
+        dragsReceived  = new LongAdder();
+        dragsCoalesced = new LongAdder();
+        for (int i = 0 ; i < timers.length ; i++) { timers[i] = new Timer(); }
+    }
+
+
+    // ******************** Methods *******************************************
+    public static boolean isEnabled() { return enabled; }
+    public static void setEnabled(final boolean ENABLED) { enabled = ENABLED; }
+
+    /**
+     * Returns the metrics of all TimeControls in this JVM.
+     */
+    public static TimeControlMetrics global() { return GLOBAL; }
+
+    /**
+     * Registers the MXBean of the global metrics at the platform MBeanServer
+     * under OBJECT_NAME. Calling it more than once has no effect.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName  name   = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) { server.registerMBean(new MXBean(), name); }
+        } catch (InstanceAlreadyExistsException exception) {
+            // Registered by another thread in the meantime
+        } catch (JMException exception) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME, exception);
+        }
+    }
+
+    /**
+     * Returns a consistent enough copy of the current values, the values
+     * of a snapshot will not change anymore.
+     */
+    public Snapshot snapshot() { return new Snapshot(this); }
+
+    public void reset() {
+        for (Timer timer : timers) { timer.reset(); }
+        dragsReceived.reset();
+        dragsCoalesced.reset();
+    }
+
+    /**
+     * Records the time since START_NANOS (System.nanoTime()) for the operation.
+     */
+    void record(final Operation OPERATION, final long START_NANOS) {
+        long nanos = System.nanoTime() - START_NANOS;
+        timers[OPERATION.ordinal()].record(nanos);
+        if (null != parent) { parent.timers[OPERATION.ordinal()].record(nanos); }
+    }
+
+    /**
+     * Records a drag event, it is coalesced if it did not change the value.
+     */
+    void recordDrag(final boolean COALESCED) {
+        dragsReceived.increment();
+        if (COALESCED) { dragsCoalesced.increment(); }
+        if (null != parent) { parent.recordDrag(COALESCED); }
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private static final class Timer {
+        private final LongAdder       count   = new LongAdder();
+        private final LongAdder       total   = new LongAdder();
+        private final LongAccumulator max     = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(final long NANOS) {
+            long nanos = Math.max(0, NANOS);
+            count.increment();
+            total.add(nanos);
+            max.accumulate(nanos);
+            buckets.incrementAndGet(bucket(nanos));
+        }
+
+        void reset() {
+            count.reset();
+            total.reset();
+            max.reset();
+            for (int i = 0 ; i < BUCKETS ; i++) { buckets.set(i, 0); }
+        }
+
+        // Bucket i contains the values in [2^i, 2^(i+1)), 0 ends up in bucket 0
+        static int bucket(final long NANOS) { return 63 - Long.numberOfLeadingZeros(NANOS | 1); }
+    }
+
+    /**
+     * Immutable copy of the values of a TimeControlMetrics.
+     */
+    public static final class Snapshot {
+        private final long[]   counts;
+        private final long[]   totals;
+        private final long[]   maxima;
+        private final long[][] histograms;
+        private final long     dragsReceived;
+        private final long     dragsCoalesced;
+
+        private Snapshot(final TimeControlMetrics METRICS) {
+            int operations = METRICS.timers.length;
+            counts         = new long[operations];
+            totals         = new long[operations];
+            maxima         = new long[operations];
+            histograms     = new long[operations][BUCKETS];
+            for (int i = 0 ; i < operations ; i++) {
+                Timer timer = METRICS.timers[i];
+                counts[i] = timer.count.sum();
+                totals[i] = timer.total.sum();
+                maxima[i] = timer.max.get();
+                for (int j = 0 ; j < BUCKETS ; j++) { histograms[i][j] = timer.buckets.get(j); }
+            }
+            dragsReceived  = METRICS.dragsReceived.sum();
+            dragsCoalesced = METRICS.dragsCoalesced.sum();
+        }
+
+        public long getCount(final Operation OPERATION) { return counts[OPERATION.ordinal()]; }
+
+        public long getTotalNanos(final Operation OPERATION) { return totals[OPERATION.ordinal()]; }
+
+        public long getMaxNanos(final Operation OPERATION) { return maxima[OPERATION.ordinal()]; }
+
+        public long getMeanNanos(final Operation OPERATION) {
+            long count = counts[OPERATION.ordinal()];
+            return 0 == count ? 0 : totals[OPERATION.ordinal()] / count;
+        }
+
+        /**
+         * Returns the upper bound of the histogram bucket that contains the
+         * given percentile, the result is at most twice the exact value.
+         * @param OPERATION  the operation
+         * @param PERCENTILE percentile between 0 and 100
+         * @return the percentile in nanoseconds, 0 if nothing was recorded
+         */
+        public long getPercentileNanos(final Operation OPERATION, final double PERCENTILE) {
+            long[] histogram = histograms[OPERATION.ordinal()];
+            long   count     = 0;
+            for (long bucket : histogram) { count += bucket; }
+            if (0 == count) { return 0; }
+            long threshold = (long) Math.ceil(count * Math.min(100, Math.max(0, PERCENTILE)) / 100.0);
+            long sum       = 0;
+            for (int i = 0 ; i < BUCKETS ; i++) {
+                sum += histogram[i];
+                if (sum >= threshold && sum > 0) { return Math.min(i == 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, getMaxNanos(OPERATION)); }
+            }
+            return getMaxNanos(OPERATION);
+        }
+
+        public long getDragsReceived() { return dragsReceived; }
+
+        public long getDragsCoalesced() { return dragsCoalesced; }
+
+        @Override public String toString() {
+            StringBuilder builder = new StringBuilder("TimeControlMetrics[");
+            for (Operation operation : Operation.values()) {
+                builder.append(operation).append("={count=").append(getCount(operation))
+                       .append(", mean=").append(getMeanNanos(operation))
+                       .append("ns, p99=").append(getPercentileNanos(operation, 99))
+                       .append("ns, max=").append(getMaxNanos(operation)).append("ns}, ");
+            }
+            return builder.append("dragsReceived=").append(dragsReceived)
+                          .append(", dragsCoalesced=").append(dragsCoalesced).append(']').toString();
+        }
+    }
+
+    private static final class MXBean implements TimeControlMetricsMXBean {
+        @Override public boolean isEnabled() { return TimeControlMetrics.isEnabled(); }
+        @Override public void setEnabled(final boolean ENABLED) { TimeControlMetrics.setEnabled(ENABLED); }
+
+        @Override public Map<String, Long> getCounts() {
+            Snapshot          snapshot = GLOBAL.snapshot();
+            Map<String, Long> values   = new LinkedHashMap<>();
+            for (Operation operation : Operation.values()) { values.put(operation.name(), snapshot.getCount(operation)); }
+            return values;
+        }
+
+        @Override public Map<String, Long> getMeanNanos() {
+            Snapshot          snapshot = GLOBAL.snapshot();
+            Map<String, Long> values   = new LinkedHashMap<>();
+            for (Operation operation : Operation.values()) { values.put(operation.name(), snapshot.getMeanNanos(operation)); }
+            return values;
+        }
+
+        @Override public Map<String, Long> getP99Nanos() {
+            Snapshot          snapshot = GLOBAL.snapshot();
+            Map<String, Long> values   = new LinkedHashMap<>();
+            for (Operation operation : Operation.values()) { values.put(operation.name(), snapshot.getPercentileNanos(operation, 99)); }
+            return values;
+        }
+
+        @Override public Map<String, Long> getMaxNanos() {
+            Snapshot          snapshot = GLOBAL.snapshot();
+            Map<String, Long> values   = new LinkedHashMap<>();
+            for (Operation operation : Operation.values()) { values.put(operation.name(), snapshot.getMaxNanos(operation)); }
+            return values;
+        }
+
+        @Override public long getDragsReceived() { return GLOBAL.dragsReceived.sum(); }
+
+        @Override public long getDragsCoalesced() { return GLOBAL.dragsCoalesced.sum(); }
+
+        @Override public void reset() { GLOBAL.reset(); }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import java.util.Map;
+
+
+/**
+ * Management interface of the global TimeControlMetrics, the maps are
+ * keyed by the names of TimeControlMetrics.Operation.
+ */
+public interface TimeControlMetricsMXBean {
+    boolean isEnabled();
+    void setEnabled(boolean ENABLED);
+
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getMeanNanos();
+
+    Map<String, Long> getP99Nanos();
+
+    Map<String, Long> getMaxNanos();
+
+    long getDragsReceived();
+
+    long getDragsCoalesced();
+
+    void reset();
+}
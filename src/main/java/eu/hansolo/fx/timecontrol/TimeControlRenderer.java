@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import javafx.scene.paint.Color;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ObjIntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * Renders the same picture as a TimeControl into a BufferedImage by
+ * using Java2D. It does not need the JavaFX toolkit and can be used
+ * on any thread, e.g. to create the images of a report. The render
+ * methods do not modify the renderer and can be called in parallel,
+ * renderAll() splits a list of ranges into tasks of a ForkJoinPool.
+ * The colors and the time format should be set before rendering.
+ */
+public class TimeControlRenderer {
+    private static final Logger                   LOGGER              = Logger.getLogger(TimeControlRenderer.class.getName());
+    private static final double                   ANGLE_STEP          = DialGeometry.ANGLE_STEP;
+    private static final int                      BATCH_SIZE          = 16;
+    private static final int                      DIAL_CACHE_CAPACITY = 16;
+    private static final Font                     ROBOTO_LIGHT        = loadFont("Roboto-Light.ttf");
+    private static final Font                     ROBOTO_REGULAR      = loadFont("Roboto-Regular.ttf");
+    private final        Map<Long, BufferedImage> dials;
+    private volatile     java.awt.Color           backgroundColor;
+    private volatile     java.awt.Color           barBackgroundColor;
+    private volatile     java.awt.Color           barColor;
+    private volatile     java.awt.Color           textColor;
+    private volatile     String[]                 timeLabels;
+
+
+    // ******************** Constructors **************************************
+    public TimeControlRenderer() {
+        dials              = new ConcurrentHashMap<>();
+        backgroundColor    = toAwt(Color.web("#0d0d0d"));
+        barBackgroundColor = toAwt(Color.web("#171717"));
+        barColor           = toAwt(Color.web("#ffb500"));
+        textColor          = toAwt(Color.WHITE);
+        timeLabels         = TimeLabels.timeTable(Locale.getDefault(), true);
+    }
+
+
+    // ******************** Methods *******************************************
+    public void setBackgroundColor(final Color COLOR) { backgroundColor = toAwt(COLOR); }
+
+    public void setBarBackgroundColor(final Color COLOR) { barBackgroundColor = toAwt(COLOR); }
+
+    public void setBarColor(final Color COLOR) { barColor = toAwt(COLOR); }
+
+    public void setTextColor(final Color COLOR) { textColor = toAwt(COLOR); }
+
+    public void setTimeFormat(final Locale LOCALE, final boolean TWENTY_FOUR_HOUR) { timeLabels = TimeLabels.timeTable(LOCALE, TWENTY_FOUR_HOUR); }
+
+    /**
+     * Returns the height of an image with the given width, the ratio is
+     * the same as the one of the TimeControl.
+     */
+    public static int heightFor(final int WIDTH) { return (int) Math.round(WIDTH * TimeControl.ASPECT_RATIO); }
+
+    public BufferedImage render(final TimeRange RANGE, final int WIDTH) { return render(RANGE.getStart(), RANGE.getStop(), null, WIDTH); }
+
+    /**
+     * Renders a TimeControl that shows the range from START to STOP
+     * (seconds of the day). If a schedule is given its ranges will be
+     * drawn on the ring instead of the bar, like in the TimeControl.
+     * @param START    start of the range in seconds of the day
+     * @param STOP     stop of the range in seconds of the day
+     * @param SCHEDULE schedule that will be drawn on the ring or null
+     * @param WIDTH    width of the image in pixels
+     * @return a new image of WIDTH x heightFor(WIDTH) pixels
+     */
+    public BufferedImage render(final int START, final int STOP, final DaySchedule SCHEDULE, final int WIDTH) {
+        TimeRange.checkSecondOfDay(START);
+        TimeRange.checkSecondOfDay(STOP);
+        if (WIDTH < 1) { throw new IllegalArgumentException("Width must be at least 1"); }
+        BufferedImage image = new BufferedImage(WIDTH, heightFor(WIDTH), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D    g2    = image.createGraphics();
+        try {
+            draw(g2, START, STOP, SCHEDULE, WIDTH, image.getHeight());
+        } finally {
+            g2.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Renders all ranges in the common ForkJoinPool and hands every image
+     * together with the index of its range to the consumer. The consumer
+     * will be called from the worker threads of the pool.
+     */
+    public void renderAll(final List<? extends TimeRange> RANGES, final int WIDTH, final ObjIntConsumer<BufferedImage> CONSUMER) {
+        renderAll(RANGES, WIDTH, ForkJoinPool.commonPool(), CONSUMER);
+    }
+    public void renderAll(final List<? extends TimeRange> RANGES, final int WIDTH, final ForkJoinPool POOL, final ObjIntConsumer<BufferedImage> CONSUMER) {
+        if (RANGES.isEmpty()) { return; }
+        POOL.invoke(new RenderTask(RANGES, WIDTH, CONSUMER, 0, RANGES.size()));
+    }
+
+    public static void writePng(final BufferedImage IMAGE, final Path PATH) throws IOException {
+        try (OutputStream out = Files.newOutputStream(PATH)) {
+            if (!ImageIO.write(IMAGE, "png", out)) { throw new IOException("No png writer available"); }
+        }
+    }
+
+    private void draw(final Graphics2D G2, final int START, final int STOP, final DaySchedule SCHEDULE, final double WIDTH, final double HEIGHT) {
+        java.awt.Color textColor          = this.textColor;
+        java.awt.Color barColor           = this.barColor;
+        java.awt.Color barBackgroundColor = this.barBackgroundColor;
+        String[]       timeLabels         = this.timeLabels;
+        Font           smallFont          = ROBOTO_REGULAR.deriveFont((float) (WIDTH * 0.05));
+        Font           timeFont           = ROBOTO_REGULAR.deriveFont((float) (WIDTH * 0.12));
+        Font           durationFont       = ROBOTO_REGULAR.deriveFont((float) (WIDTH * 0.11));
+        double         iconSize           = WIDTH * 0.04725;
+
+        G2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        G2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        G2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        G2.setColor(backgroundColor);
+        G2.fill(new Rectangle2D.Double(0, 0, WIDTH, HEIGHT));
+
+        // Start and stop
+        G2.setColor(barColor);
+        fillStartIcon(G2, 0, WIDTH * 0.022, iconSize);
+        fillStopIcon(G2, (WIDTH - G2.getFontMetrics(smallFont).stringWidth("Stop")) - WIDTH * 0.065, WIDTH * 0.022, iconSize);
+
+        G2.setColor(textColor);
+        drawTopAligned(G2, "Start", smallFont, WIDTH * 0.065, WIDTH * 0.0125, false);
+        drawTopAligned(G2, timeLabels[START / 60], timeFont, WIDTH * 0.05, WIDTH * 0.0825, false);
+        drawTopAligned(G2, "Stop", smallFont, WIDTH, WIDTH * 0.0125, true);
+        drawTopAligned(G2, timeLabels[STOP / 60], timeFont, WIDTH - WIDTH * 0.05, WIDTH * 0.0825, true);
+
+        // Duration
+        int         deltaSeconds    = TimeRange.duration(START, STOP);
+        String      hours           = TimeLabels.twoDigits(deltaSeconds / 3600);
+        String      minutes         = TimeLabels.twoDigits(deltaSeconds % 3600 / 60);
+        FontMetrics smallMetrics    = G2.getFontMetrics(smallFont);
+        FontMetrics durationMetrics = G2.getFontMetrics(durationFont);
+        double      gap             = WIDTH * 0.0125;
+        double      hoursWidth      = durationMetrics.stringWidth(hours);
+        double      hWidth          = smallMetrics.stringWidth("h");
+        double      minutesWidth    = durationMetrics.stringWidth(minutes);
+        double      mWidth          = smallMetrics.stringWidth("m");
+        double      x               = (WIDTH - (hoursWidth + hWidth + minutesWidth + mWidth + 5 * gap)) * 0.5;
+        float       baseline        = (float) (HEIGHT * 0.54 + durationMetrics.getAscent());
+        G2.setFont(durationFont);
+        G2.drawString(hours, (float) x, baseline);
+        x += hoursWidth + gap;
+        G2.setFont(smallFont);
+        G2.drawString("h", (float) x, baseline);
+        x += hWidth + 3 * gap;
+        G2.setFont(durationFont);
+        G2.drawString(minutes, (float) x, baseline);
+        x += minutesWidth + gap;
+        G2.setFont(smallFont);
+        G2.drawString("m", (float) x, baseline);
+
+        // Dial
+        int dialSize = (int) Math.max(1, Math.round(WIDTH * 0.75));
+        G2.drawImage(getDial(dialSize, textColor), (int) Math.round((WIDTH - dialSize) * 0.5), (int) Math.round(HEIGHT * 0.30693069), null);
+
+        // Ring
+        double centerX   = WIDTH * 0.5;
+        double centerY   = HEIGHT * 0.6039604;
+        double radius    = WIDTH * 0.4425;
+        float  lineWidth = (float) (WIDTH * 0.115);
+        G2.setStroke(new BasicStroke(lineWidth, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND));
+        G2.setColor(barBackgroundColor);
+        G2.draw(new Ellipse2D.Double(centerX - radius, centerY - radius, radius * 2, radius * 2));
+        if (null != SCHEDULE) {
+            G2.setColor(barColor);
+            for (int i = 0 ; i < SCHEDULE.size() ; i++) {
+                int start = SCHEDULE.getStart(i);
+                int stop  = SCHEDULE.getStop(i);
+                G2.draw(new Arc2D.Double(centerX - radius, centerY - radius, radius * 2, radius * 2, 90 - start * ANGLE_STEP, -TimeRange.duration(start, stop) * ANGLE_STEP, Arc2D.OPEN));
+            }
+            return;
+        }
+        if (deltaSeconds > 0) {
+            G2.setStroke(new BasicStroke(lineWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            G2.setColor(barColor);
+            G2.draw(new Arc2D.Double(centerX - radius, centerY - radius, radius * 2, radius * 2, 90 - TimeRange.normalizedStart(START, STOP) * ANGLE_STEP, -deltaSeconds * ANGLE_STEP, Arc2D.OPEN));
+        }
+
+        // Touch points
+        fillTouchPoint(G2, START, true, centerX, centerY, radius, WIDTH * 0.0525, iconSize, barColor, barBackgroundColor);
+        fillTouchPoint(G2, STOP, false, centerX, centerY, radius, WIDTH * 0.0525, iconSize, barColor, barBackgroundColor);
+    }
+
+    private static void drawTopAligned(final Graphics2D G2, final String TEXT, final Font FONT, final double X, final double Y, final boolean RIGHT) {
+        FontMetrics metrics = G2.getFontMetrics(FONT);
+        G2.setFont(FONT);
+        G2.drawString(TEXT, (float) (RIGHT ? X - metrics.stringWidth(TEXT) : X), (float) (Y + metrics.getAscent()));
+    }
+
+    private static void fillTouchPoint(final Graphics2D G2, final int SECOND_OF_DAY, final boolean START, final double CENTER_X, final double CENTER_Y, final double RADIUS,
+                                       final double TOUCH_POINT_RADIUS, final double ICON_SIZE, final java.awt.Color ICON_COLOR, final java.awt.Color COLOR) {
+        double x = CENTER_X - RADIUS * DialGeometry.handleSin(SECOND_OF_DAY);
+        double y = CENTER_Y - RADIUS * DialGeometry.handleCos(SECOND_OF_DAY);
+        G2.setColor(COLOR);
+        G2.fill(new Ellipse2D.Double(x - TOUCH_POINT_RADIUS, y - TOUCH_POINT_RADIUS, TOUCH_POINT_RADIUS * 2, TOUCH_POINT_RADIUS * 2));
+        G2.setColor(ICON_COLOR);
+        if (START) {
+            fillStartIcon(G2, x - TOUCH_POINT_RADIUS + ICON_SIZE * 0.6, y - TOUCH_POINT_RADIUS + ICON_SIZE * 0.6, ICON_SIZE);
+        } else {
+            fillStopIcon(G2, x - TOUCH_POINT_RADIUS + ICON_SIZE * 0.6, y - TOUCH_POINT_RADIUS + ICON_SIZE * 0.6, ICON_SIZE);
+        }
+    }
+
+    // Same shapes as .start-icon and .stop-icon in timecontrol.css
+    private static void fillStartIcon(final Graphics2D G2, final double X, final double Y, final double SIZE) {
+        Path2D path = new Path2D.Double();
+        path.moveTo(X, Y);
+        path.lineTo(X + SIZE, Y + SIZE * 0.5);
+        path.lineTo(X, Y + SIZE);
+        path.closePath();
+        G2.fill(path);
+    }
+
+    private static void fillStopIcon(final Graphics2D G2, final double X, final double Y, final double SIZE) { G2.fill(new Rectangle2D.Double(X, Y, SIZE, SIZE)); }
+
+    // The dials are immutable once created and will be shared by all threads, keyed like in DialCache
+    private BufferedImage getDial(final int SIZE, final java.awt.Color COLOR) {
+        final Long    KEY  = ((long) SIZE << 32) | (COLOR.getRGB() & 0xffffffffL);
+        BufferedImage dial = dials.get(KEY);
+        if (null == dial) {
+            if (dials.size() >= DIAL_CACHE_CAPACITY) { dials.clear(); }
+            dial = dials.computeIfAbsent(KEY, key -> renderDial(SIZE, COLOR));
+        }
+        return dial;
+    }
+
+    private static BufferedImage renderDial(final int SIZE, final java.awt.Color COLOR) {
+        BufferedImage  image              = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D     g2                 = image.createGraphics();
+        double         center             = SIZE * 0.5;
+        double         innerRadius        = SIZE * 0.465;
+        double         innerMinuteRadius  = SIZE * 0.478;
+        double         outerRadius        = SIZE * 0.5;
+        double         textRadius         = SIZE * 0.42;
+        java.awt.Color minorTickMarkColor = new java.awt.Color(COLOR.getRed(), COLOR.getGreen(), COLOR.getBlue(), 64);
+        java.awt.Color majorTickMarkColor = new java.awt.Color(COLOR.getRed(), COLOR.getGreen(), COLOR.getBlue(), 128);
+        Font           font               = ROBOTO_LIGHT.deriveFont((float) (SIZE / 0.75 * 0.04));
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setStroke(new BasicStroke((float) (SIZE * 0.005), BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND));
+            g2.setFont(font);
+            FontMetrics metrics = g2.getFontMetrics();
+            for (int i = 0 ; i < DialGeometry.TICK_COUNT ; i++) {
+                double outerX = DialGeometry.tickX(i, center, outerRadius);
+                double outerY = DialGeometry.tickY(i, center, outerRadius);
+                if (DialGeometry.isMajorTick(i)) {
+                    g2.setColor(majorTickMarkColor);
+                    g2.draw(new Line2D.Double(DialGeometry.tickX(i, center, innerRadius), DialGeometry.tickY(i, center, innerRadius), outerX, outerY));
+                    String label = DialGeometry.tickLabel(i);
+                    float  x     = (float) (DialGeometry.tickX(i, center, textRadius) - metrics.stringWidth(label) * 0.5);
+                    float  y     = (float) (DialGeometry.tickY(i, center, textRadius) + (metrics.getAscent() - metrics.getDescent()) * 0.5);
+                    g2.drawString(label, x, y);
+                } else {
+                    g2.setColor(minorTickMarkColor);
+                    g2.draw(new Line2D.Double(DialGeometry.tickX(i, center, innerMinuteRadius), DialGeometry.tickY(i, center, innerMinuteRadius), outerX, outerY));
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+        return image;
+    }
+
+    private static java.awt.Color toAwt(final Color COLOR) {
+        return new java.awt.Color((float) COLOR.getRed(), (float) COLOR.getGreen(), (float) COLOR.getBlue(), (float) COLOR.getOpacity());
+    }
+
+    private static Font loadFont(final String NAME) {
+        try (InputStream in = TimeControlRenderer.class.getResourceAsStream("/eu/hansolo/fx/timecontrol/fonts/" + NAME)) {
+            if (null != in) { return Font.createFont(Font.TRUETYPE_FONT, in); }
+            LOGGER.log(Level.WARNING, "Could not find font " + NAME + ", using " + Font.SANS_SERIF);
+        } catch (FontFormatException | IOException exception) {
+            LOGGER.log(Level.WARNING, "Could not load font " + NAME + ", using " + Font.SANS_SERIF, exception);
+        }
+        return new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+    }
+
+
+    // ******************** Inner Classes *************************************
+    private final class RenderTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends TimeRange>     ranges;
+        private final int                           width;
+        private final ObjIntConsumer<BufferedImage> consumer;
+        private final int                           from;
+        private final int                           to;
+
+        RenderTask(final List<? extends TimeRange> RANGES, final int WIDTH, final ObjIntConsumer<BufferedImage> CONSUMER, final int FROM, final int TO) {
+            ranges   = RANGES;
+            width    = WIDTH;
+            consumer = CONSUMER;
+            from     = FROM;
+            to       = TO;
+        }
+
+        @Override protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from ; i < to ; i++) { consumer.accept(render(ranges.get(i), width), i); }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RenderTask(ranges, width, consumer, from, middle), new RenderTask(ranges, width, consumer, middle, to));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import eu.hansolo.fx.timecontrol.TimeControl.RenderMode;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+
+/**
+ * TableCell for columns of TimeRange values. Like TimeControlListCell
+ * every cell creates its TimeControl once and rebinds it to the range
+ * of the row it shows, scrolling does not create any nodes.
+ */
+public class TimeControlTableCell<S> extends TableCell<S, TimeRange> {
+    private final TimeControl timeControl;
+
+
+    // ******************** Constructors **************************************
+    public TimeControlTableCell() {
+        this(RenderMode.CANVAS, TimeControlListCell.DEFAULT_SIZE);
+    }
+    /**
+     * @param RENDER_MODE render mode of the control, RenderMode.CANVAS needs the least nodes
+     * @param SIZE        preferred width of the control, the height follows from the aspect ratio
+     */
+    public TimeControlTableCell(final RenderMode RENDER_MODE, final double SIZE) {
+        timeControl = new TimeControl(RENDER_MODE);
+        timeControl.setPrefSize(SIZE, SIZE * TimeControl.ASPECT_RATIO);
+        getStyleClass().add("time-control-table-cell");
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+    }
+
+
+    // ******************** Methods *******************************************
+    @Override protected void updateItem(final TimeRange ITEM, final boolean EMPTY) {
+        super.updateItem(ITEM, EMPTY);
+        TimeRange range = EMPTY ? null : ITEM;
+        timeControl.bindTimeRange(range);
+        setText(null);
+        setGraphic(null == range ? null : timeControl);
+    }
+
+    /**
+     * Returns the control of this cell, e.g. to set its colors. The
+     * control will be reused for all rows that are shown in this cell.
+     */
+    public TimeControl getTimeControl() { return timeControl; }
+
+    public static <S> Callback<TableColumn<S, TimeRange>, TableCell<S, TimeRange>> forTableColumn() {
+        return forTableColumn(RenderMode.CANVAS, TimeControlListCell.DEFAULT_SIZE);
+    }
+    public static <S> Callback<TableColumn<S, TimeRange>, TableCell<S, TimeRange>> forTableColumn(final RenderMode RENDER_MODE, final double SIZE) {
+        return column -> new TimeControlTableCell<>(RENDER_MODE, SIZE);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Interned labels for all 1440 minutes of a day and for the two digit
+ * hours and minutes of a duration. Updating a text costs an array
+ * lookup instead of formatting a LocalTime. The tables for the 12 hour
+ * format are created once per locale.
+ */
+final class TimeLabels {
+    static final         int                   MINUTES_PER_DAY = 1440;
+    private static final String[]              TWO_DIGITS      = new String[60];
+    private static final String[]              TIME_24H        = createTable("HH:mm", Locale.ROOT);
+    private static final Map<Locale, String[]> TIME_12H        = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0 ; i < TWO_DIGITS.length ; i++) { TWO_DIGITS[i] = i < 10 ? "0" + i : Integer.toString(i); }
+    }
+
+
+    // ******************** Constructors **************************************
+    private TimeLabels() {}
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the table with the labels of all minutes of the day, the
+     * index of a label is the minute of the day.
+     * @param LOCALE           locale that will be used for the AM/PM markers
+     * @param TWENTY_FOUR_HOUR true for HH:mm, false for h:mm a
+     * @return the shared label table
+     */
+    static String[] timeTable(final Locale LOCALE, final boolean TWENTY_FOUR_HOUR) {
+        if (TWENTY_FOUR_HOUR) { return TIME_24H; }
+        return TIME_12H.computeIfAbsent(LOCALE, locale -> createTable("h:mm a", locale));
+    }
+
+    /**
+     * Returns the HH:mm label of the given second of the day.
+     */
+    static String time(final int SECOND_OF_DAY) { return TIME_24H[SECOND_OF_DAY / 60]; }
+
+    /**
+     * Returns the zero padded label of a value between 0 and 59.
+     */
+    static String twoDigits(final int VALUE) { return TWO_DIGITS[VALUE]; }
+
+    private static String[] createTable(final String PATTERN, final Locale LOCALE) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(PATTERN, LOCALE);
+        String[]          table     = new String[MINUTES_PER_DAY];
+        for (int i = 0 ; i < MINUTES_PER_DAY ; i++) { table[i] = formatter.format(LocalTime.ofSecondOfDay(i * 60)); }
+        return table;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.IntegerPropertyBase;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerPropertyBase;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+
+/**
+ * Headless model of the range shown by a TimeControl. Start and stop
+ * are stored as seconds of the day (0 - 86399). If the start is after
+ * the stop the range wraps over midnight. The static methods implement
+ * the same semantics on plain ints and can be used without any
+ * TimeRange instance or JavaFX toolkit.
+ * A TimeRange is an Observable that is invalidated once per change of
+ * start and/or stop. Changes between beginUpdate() and endUpdate() will
+ * be collected and fired once after the last endUpdate(), listeners of
+ * start, stop and duration never see intermediate values then. Listeners
+ * that are added during an update will not be notified about the changes
+ * that have been collected before.
+ */
+public class TimeRange implements Observable {
+    public  static final int                        SECONDS_PER_DAY = 86400;
+    private              SecondProperty             start;
+    private              SecondProperty             stop;
+    private              DurationProperty           duration;
+    private final        List<InvalidationListener> listeners       = new CopyOnWriteArrayList<>();
+    private              int                        updateDepth;
+
+
+    // ******************** Constructors **************************************
+    public TimeRange() {
+        this(0, 0);
+    }
+    public TimeRange(final int START, final int STOP) {
+        checkSecondOfDay(START);
+        checkSecondOfDay(STOP);
+        duration = new DurationProperty(duration(START, STOP));
+        start    = new SecondProperty(START, "start");
+        stop     = new SecondProperty(STOP, "stop");
+    }
+
+
+    // ******************** Methods *******************************************
+    public int getStart() { return start.get(); }
+    public void setStart(final int SECOND_OF_DAY) { start.set(SECOND_OF_DAY); }
+    public IntegerProperty startProperty() { return start; }
+
+    public int getStop() { return stop.get(); }
+    public void setStop(final int SECOND_OF_DAY) { stop.set(SECOND_OF_DAY); }
+    public IntegerProperty stopProperty() { return stop; }
+
+    /**
+     * Sets start and stop at once, listeners will be notified once after
+     * both values have been changed.
+     * @throws IllegalArgumentException if one of the values is not a second of the day
+     */
+    public void set(final int START, final int STOP) {
+        checkSecondOfDay(START);
+        checkSecondOfDay(STOP);
+        beginUpdate();
+        try {
+            setStart(START);
+            setStop(STOP);
+        } finally {
+            endUpdate();
+        }
+    }
+
+    public int getDuration() { return duration.get(); }
+    public ReadOnlyIntegerProperty durationProperty() { return duration; }
+
+    public boolean contains(final int SECOND_OF_DAY) { return contains(getStart(), getStop(), SECOND_OF_DAY); }
+
+    /**
+     * Starts collecting changes, calls can be nested and every call has
+     * to be followed by a call of endUpdate().
+     */
+    public void beginUpdate() {
+        if (0 == updateDepth++) {
+            start.mark();
+            stop.mark();
+        }
+    }
+
+    /**
+     * Fires the changes that have been collected since the first call of
+     * beginUpdate() if this is the last pending endUpdate().
+     * @throws IllegalStateException if there is no pending beginUpdate()
+     */
+    public void endUpdate() {
+        if (0 == updateDepth) { throw new IllegalStateException("endUpdate() without beginUpdate()"); }
+        if (--updateDepth > 0) { return; }
+        duration.update();
+        boolean changed = start.firePending() | stop.firePending();
+        duration.firePending();
+        if (changed) { fireInvalidated(); }
+    }
+
+    public boolean isUpdating() { return updateDepth > 0; }
+
+    /**
+     * Runs the given changes between beginUpdate() and endUpdate().
+     */
+    public void update(final Runnable CHANGES) {
+        beginUpdate();
+        try {
+            CHANGES.run();
+        } finally {
+            endUpdate();
+        }
+    }
+
+    @Override public void addListener(final InvalidationListener LISTENER) { listeners.add(LISTENER); }
+    @Override public void removeListener(final InvalidationListener LISTENER) { listeners.remove(LISTENER); }
+
+    /**
+     * Returns the duration in seconds between START and STOP. If START
+     * is after STOP the range wraps over midnight, equal values result
+     * in a duration of 0.
+     */
+    public static int duration(final int START, final int STOP) { return STOP - normalizedStart(START, STOP); }
+
+    /**
+     * Returns START shifted by one day into the past if the range wraps
+     * over midnight, so that the returned value is always <= STOP.
+     */
+    public static int normalizedStart(final int START, final int STOP) { return START > STOP ? START - SECONDS_PER_DAY : START; }
+
+    /**
+     * Returns true if SECOND_OF_DAY is within [START, STOP), taking the
+     * wrap over midnight into account.
+     */
+    public static boolean contains(final int START, final int STOP, final int SECOND_OF_DAY) {
+        if (START <= STOP) { return SECOND_OF_DAY >= START && SECOND_OF_DAY < STOP; }
+        return SECOND_OF_DAY >= START || SECOND_OF_DAY < STOP;
+    }
+
+    static void checkSecondOfDay(final int SECOND_OF_DAY) {
+        if (SECOND_OF_DAY < 0 || SECOND_OF_DAY >= SECONDS_PER_DAY) { throw new IllegalArgumentException("Second of day out of range: " + SECOND_OF_DAY); }
+    }
+
+    private void fireInvalidated() {
+        for (InvalidationListener listener : listeners) { listener.invalidated(this); }
+    }
+
+    @Override public String toString() { return "TimeRange[start=" + getStart() + ", stop=" + getStop() + ", duration=" + getDuration() + "]"; }
+
+
+    // ******************** Inner Classes *************************************
+    private final class SecondProperty extends IntegerPropertyBase {
+        private final String  name;
+        private       boolean pending;
+        private       int     valueAtBegin;
+
+        SecondProperty(final int VALUE, final String NAME) {
+            super(VALUE);
+            name = NAME;
+        }
+
+        // Validates before the value is stored, an invalid value leaves the range unchanged
+        @Override public void set(final int SECOND_OF_DAY) {
+            checkSecondOfDay(SECOND_OF_DAY);
+            super.set(SECOND_OF_DAY);
+        }
+
+        @Override protected void invalidated() {
+            if (isUpdating()) { return; }
+            duration.update();
+        }
+
+        @Override protected void fireValueChangedEvent() {
+            if (isUpdating()) {
+                pending = true;
+                return;
+            }
+            super.fireValueChangedEvent();
+            duration.firePending();
+            fireInvalidated();
+        }
+
+        void mark() { valueAtBegin = get(); }
+
+        // Fires if the value differs from the value at beginUpdate()
+        boolean firePending() {
+            if (!pending) { return false; }
+            pending = false;
+            if (get() == valueAtBegin) { return false; }
+            super.fireValueChangedEvent();
+            return true;
+        }
+
+        @Override public Object getBean() { return TimeRange.this; }
+        @Override public String getName() { return name; }
+    }
+
+    // The value is updated together with start and stop, but its listeners are notified after theirs
+    private final class DurationProperty extends ReadOnlyIntegerPropertyBase {
+        private int     value;
+        private boolean pending;
+
+        DurationProperty(final int VALUE) { value = VALUE; }
+
+        @Override public int get() { return value; }
+
+        void update() {
+            int newValue = duration(getStart(), getStop());
+            if (newValue == value) { return; }
+            value   = newValue;
+            pending = true;
+        }
+
+        void firePending() {
+            if (!pending) { return; }
+            pending = false;
+            fireValueChangedEvent();
+        }
+
+        @Override public Object getBean() { return TimeRange.this; }
+        @Override public String getName() { return "duration"; }
+    }
+}
@@ -18,31 +18,97 @@ package eu.hansolo.fx.timecontrol.fonts;
 
 import javafx.scene.text.Font;
 
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 
 /**
+ * The Roboto fonts are loaded in the background when this class is
+ * initialized. Until they are available (or if loading fails) the
+ * default font family is used, whenLoaded() can be used to update
+ * the texts once the fonts are there.
+ *
  * User: hansolo
  * Date: 01.10.16
  * Time: 04:47
  */
 public class Fonts {
-    private static final String ROBOTO_LIGHT_NAME;
-    private static final String ROBOTO_REGULAR_NAME;
+    private static final Logger                  LOGGER               = Logger.getLogger(Fonts.class.getName());
+    private static final int                     CACHE_CAPACITY       = 128;
+    private static final double                  SIZE_STEP            = 0.5;
+    private static final Map<Integer, Font>      ROBOTO_LIGHT_CACHE   = createCache();
+    private static final Map<Integer, Font>      ROBOTO_REGULAR_CACHE = createCache();
+    private static final CompletableFuture<Void> LOADED               = CompletableFuture.runAsync(Fonts::loadFonts);
+
+    private static volatile String robotoLightName;
+    private static volatile String robotoRegularName;
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns a shared font instance, the size will be rounded to the
+     * nearest multiple of 0.5px.
+     */
+    public static Font robotoLight(final double SIZE) { return getFont(ROBOTO_LIGHT_CACHE, robotoLightName, SIZE); }
+    /**
+     * Returns a shared font instance, the size will be rounded to the
+     * nearest multiple of 0.5px.
+     */
+    public static Font robotoRegular(final double SIZE) { return getFont(ROBOTO_REGULAR_CACHE, robotoRegularName, SIZE); }
 
-    private static String robotoLightName;
-    private static String robotoRegularName;
+    /**
+     * Returns true if loading the fonts has finished, successful or not.
+     */
+    public static boolean isLoaded() { return LOADED.isDone(); }
 
+    /**
+     * Runs the given action once loading the fonts has finished. The action
+     * will be called on the loading thread or immediately on the calling
+     * thread if the fonts have already been loaded.
+     */
+    public static void whenLoaded(final Runnable ACTION) { LOADED.thenRun(ACTION); }
 
-    static {
-        try {
-            robotoLightName   = Font.loadFont(Fonts.class.getResourceAsStream("/eu/hansolo/fx/timecontrol/fonts/Roboto-Light.ttf"), 10).getName();
-            robotoRegularName = Font.loadFont(Fonts.class.getResourceAsStream("/eu/hansolo/fx/timecontrol/fonts/Roboto-Regular.ttf"), 10).getName();
-        } catch (Exception exception) { }
-        ROBOTO_LIGHT_NAME     = robotoLightName;
-        ROBOTO_REGULAR_NAME   = robotoRegularName;
+    private static synchronized Font getFont(final Map<Integer, Font> CACHE, final String NAME, final double SIZE) {
+        final Integer KEY  = (int) Math.round(SIZE / SIZE_STEP);
+        Font          font = CACHE.get(KEY);
+        if (null == font) {
+            font = null == NAME ? Font.font(KEY * SIZE_STEP) : new Font(NAME, KEY * SIZE_STEP);
+            CACHE.put(KEY, font);
+        }
+        return font;
     }
 
+    private static void loadFonts() {
+        String lightName   = loadFont("/eu/hansolo/fx/timecontrol/fonts/Roboto-Light.ttf");
+        String regularName = loadFont("/eu/hansolo/fx/timecontrol/fonts/Roboto-Regular.ttf");
+        synchronized (Fonts.class) {
+            robotoLightName   = lightName;
+            robotoRegularName = regularName;
+            // Drop the fonts that have been created with the fallback family
+            ROBOTO_LIGHT_CACHE.clear();
+            ROBOTO_REGULAR_CACHE.clear();
+        }
+        GlyphMetrics.clear();
+    }
 
-    // ******************** Methods *******************************************
-    public static Font robotoLight(final double SIZE) { return new Font(ROBOTO_LIGHT_NAME, SIZE); }
-    public static Font robotoRegular(final double SIZE) { return new Font(ROBOTO_REGULAR_NAME, SIZE); }
+    private static String loadFont(final String RESOURCE) {
+        try (InputStream in = Fonts.class.getResourceAsStream(RESOURCE)) {
+            Font font = null == in ? null : Font.loadFont(in, 10);
+            if (null != font) { return font.getName(); }
+            LOGGER.log(Level.WARNING, "Could not load font " + RESOURCE + ", using the default font");
+        } catch (Throwable throwable) {
+            LOGGER.log(Level.WARNING, "Could not load font " + RESOURCE + ", using the default font", throwable);
+        }
+        return null;
+    }
+
+    private static Map<Integer, Font> createCache() {
+        return new LinkedHashMap<Integer, Font>(32, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(final Map.Entry<Integer, Font> ELDEST) { return size() > CACHE_CAPACITY; }
+        };
+    }
 }
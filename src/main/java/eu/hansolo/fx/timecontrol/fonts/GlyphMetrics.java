@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016 by Gerrit Grunwald
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package eu.hansolo.fx.timecontrol.fonts;
+
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Cached advance widths and ascent of a font. The width of a text is
+ * the sum of the advance widths of its characters, every character is
+ * measured once per font. This is exact for the digits, separators and
+ * unit letters of the time and duration texts and lets a control place
+ * its texts without measuring them on every change. Instances are
+ * shared per font and must only be used on the JavaFX application
+ * thread.
+ */
+public final class GlyphMetrics {
+    private static final int                     CACHE_CAPACITY = 128;
+    private static final int                     ASCII          = 128;
+    private static final Map<Font, GlyphMetrics> CACHE          = new LinkedHashMap<Font, GlyphMetrics>(32, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(final Map.Entry<Font, GlyphMetrics> ELDEST) { return size() > CACHE_CAPACITY; }
+    };
+    private static       Text                    measureText;
+    private final        Font                    font;
+    private final        double[]                advances;
+    private final        Map<Character, Double>  otherAdvances;
+    private              double                  ascent;
+
+
+    // ******************** Constructors **************************************
+    private GlyphMetrics(final Font FONT) {
+        font          = FONT;
+        advances      = new double[ASCII];
+        otherAdvances = new HashMap<>();
+        ascent        = Double.NaN;
+        Arrays.fill(advances, Double.NaN);
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Returns the shared metrics of the given font.
+     */
+    public static synchronized GlyphMetrics of(final Font FONT) {
+        GlyphMetrics metrics = CACHE.get(FONT);
+        if (null == metrics) {
+            metrics = new GlyphMetrics(FONT);
+            CACHE.put(FONT, metrics);
+        }
+        return metrics;
+    }
+
+    public Font getFont() { return font; }
+
+    /**
+     * Returns the width of the given text, i.e. the sum of the advance
+     * widths of its characters.
+     */
+    public double width(final String TEXT) {
+        double width = 0;
+        for (int i = 0 ; i < TEXT.length() ; i++) { width += advance(TEXT.charAt(i)); }
+        return width;
+    }
+
+    public double advance(final char CHARACTER) {
+        if (CHARACTER < ASCII) {
+            double advance = advances[CHARACTER];
+            if (Double.isNaN(advance)) {
+                advance = measure(String.valueOf(CHARACTER));
+                advances[CHARACTER] = advance;
+            }
+            return advance;
+        }
+        Double advance = otherAdvances.get(CHARACTER);
+        if (null == advance) {
+            advance = measure(String.valueOf(CHARACTER));
+            otherAdvances.put(CHARACTER, advance);
+        }
+        return advance;
+    }
+
+    /**
+     * Returns the distance between the top of the line and the baseline.
+     */
+    public double getAscent() {
+        if (Double.isNaN(ascent)) {
+            Text text = getMeasureText();
+            text.setFont(font);
+            text.setText("0");
+            ascent = -text.getLayoutBounds().getMinY();
+        }
+        return ascent;
+    }
+
+    // The fonts that have been created with the fallback family are gone after loading
+    static synchronized void clear() { CACHE.clear(); }
+
+    private double measure(final String TEXT) {
+        Text text = getMeasureText();
+        text.setFont(font);
+        text.setText(TEXT);
+        return text.getLayoutBounds().getWidth();
+    }
+
+    private static Text getMeasureText() {
+        if (null == measureText) { measureText = new Text(); }
+        return measureText;
+    }
+}